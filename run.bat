@@ -31,9 +31,13 @@ if not exist "target\VaultApp-1.0.0.jar" (
     )
 )
 
+REM Use the AppCDS archive when it was built (mvn clean package -Pappcds)
+set CDS_OPTS=
+if exist "target\VaultApp.jsa" set CDS_OPTS=-XX:SharedArchiveFile=target\VaultApp.jsa -Xshare:auto
+
 REM Run the application
 echo Starting Vault Application...
-java -jar target\VaultApp-1.0.0.jar
+java %CDS_OPTS% -jar target\VaultApp-1.0.0.jar
 
 if %errorlevel% neq 0 (
     echo Error: Failed to start the application.
@@ -50,7 +50,13 @@ Write-Host "Username: admin" -ForegroundColor White
 Write-Host "Password: admin123" -ForegroundColor White
 Write-Host ""
 
-java -jar target\VaultApp-1.0.0.jar
+# Use the AppCDS archive when it was built (mvn clean package -Pappcds)
+$cdsOptions = @()
+if (Test-Path "target\VaultApp.jsa") {
+    $cdsOptions = @("-XX:SharedArchiveFile=target\VaultApp.jsa", "-Xshare:auto")
+}
+
+java @cdsOptions -jar target\VaultApp-1.0.0.jar
 
 if ($LASTEXITCODE -ne 0) {
     Write-Host "Error: Failed to start the application." -ForegroundColor Red
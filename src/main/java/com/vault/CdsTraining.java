@@ -0,0 +1,119 @@
+/*
+ * Secure Vault Application
+ * Copyright (c) 2025 Lintshiwe Ntoampi. All rights reserved.
+ */
+package com.vault;
+
+import com.vault.model.Admin;
+import com.vault.model.VaultFile;
+import com.vault.service.VaultService;
+import com.vault.ui.LoginWindow;
+import com.vault.ui.MainWindow;
+import com.vault.util.DatabaseManager;
+import com.vault.util.RangeDecryptor;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Scripted workload for the AppCDS training run (login, list, search, open).
+ *
+ * Started with --cds-training by the appcds build profile against a
+ * throwaway vault; every class it touches ends up in the shared archive
+ * that is written when the JVM exits.
+ */
+class CdsTraining {
+    
+    private static final String TRAINING_USERNAME = "admin";
+    private static final String TRAINING_PASSWORD = "admin123";
+    
+    private CdsTraining() {}
+    
+    static void run() throws Exception {
+        boolean headless = GraphicsEnvironment.isHeadless();
+        
+        // Login
+        if (!headless) {
+            SwingUtilities.invokeAndWait(() -> new LoginWindow().dispose());
+        }
+        
+        Admin admin = DatabaseManager.getInstance().authenticateAdmin(TRAINING_USERNAME, TRAINING_PASSWORD);
+        if (admin == null) {
+            System.err.println("[cds-training] default admin not available, archive will only cover startup");
+            return;
+        }
+        
+        VaultService vaultService = VaultService.getInstance();
+        vaultService.setEncryptionKey(TRAINING_PASSWORD, admin.getSalt());
+        
+        Path samples = Files.createTempDirectory("cds-training");
+        try {
+            storeSamples(vaultService, samples);
+            
+            // List (the main window loads the file list, stats and space info)
+            if (!headless) {
+                SwingUtilities.invokeAndWait(() -> new MainWindow(admin, TRAINING_PASSWORD).dispose());
+            }
+            List<VaultFile> files = vaultService.getAllFiles();
+            
+            // Search
+            vaultService.searchFiles("sample");
+            vaultService.searchFiles("sam", file -> true);
+            
+            // Open, preview and stream
+            for (VaultFile file : files) {
+                vaultService.getPreview(file);
+                vaultService.openFile(file);
+                try (RangeDecryptor decryptor = vaultService.openRangeDecryptor(file)) {
+                    if (decryptor.plaintextLength() > 0) {
+                        decryptor.copyRange(0, decryptor.plaintextLength() - 1, OutputStream.nullOutputStream());
+                    }
+                }
+            }
+            
+            System.out.println("[cds-training] exercised " + files.size() + " file(s)");
+        } finally {
+            vaultService.cleanup();
+            deleteSamples(samples);
+        }
+    }
+    
+    private static void storeSamples(VaultService vaultService, Path samples) throws IOException {
+        if (!vaultService.searchFiles("cds-sample").isEmpty()) {
+            return;
+        }
+        
+        Path text = samples.resolve("cds-sample.txt");
+        Files.write(text, "Secure Vault AppCDS training sample\n".repeat(200).getBytes(StandardCharsets.UTF_8));
+        vaultService.storeFile(text.toFile(), "Training sample", "sample");
+        
+        BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(new Color(70, 130, 180));
+        g2d.fillRect(0, 0, 320, 240);
+        g2d.dispose();
+        
+        File png = samples.resolve("cds-sample.png").toFile();
+        ImageIO.write(image, "png", png);
+        vaultService.storeFile(png, "Training sample", "sample");
+    }
+    
+    private static void deleteSamples(Path samples) {
+        File[] files = samples.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        samples.toFile().delete();
+    }
+}
@@ -17,12 +17,21 @@ package com.vault;
 import com.formdev.flatlaf.FlatDarkLaf;
 import com.vault.ui.LoginWindow;
 import com.vault.ui.SplashScreen;
+import com.vault.ui.SystemTrayManager;
 import com.vault.service.AutoUpdater;
+import com.vault.service.ServiceRegistry;
+import com.vault.service.TempFileManager;
 import com.vault.util.DatabaseManager;
 import com.vault.util.SecureErrorHandler;
 
 import javax.swing.*;
 import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Main application class for the Secure Vault Application
@@ -34,21 +43,35 @@ public class VaultApplication {
     
     private static final String COPYRIGHT = "© 2025 Lintshiwe Ntoampi. All Rights Reserved.";
     private static final String APPLICATION_NAME = "Secure Vault Application™";
+    private static final long START_NANOS = System.nanoTime();
     
     public static void main(String[] args) {
         // Parse command line arguments
         boolean showSplash = true;
         boolean checkUpdates = true;
+        boolean cdsTraining = false;
+        boolean startupBenchmark = false;
         
         for (String arg : args) {
             if ("--no-splash".equals(arg)) showSplash = false;
             if ("--no-update-check".equals(arg)) checkUpdates = false;
+            if ("--cds-training".equals(arg)) cdsTraining = true;
+            if ("--startup-benchmark".equals(arg)) startupBenchmark = true;
         }
         
+        // Rendering properties must be set before AWT initializes
+        System.setProperty("java.awt.headless", "false");
+        System.setProperty("awt.useSystemAAFontSettings", "on");
+        System.setProperty("swing.aatext", "true");
+        System.setProperty("apple.laf.useScreenMenuBar", "true");
+        System.setProperty("apple.awt.application.name", APPLICATION_NAME);
+        
+        // Wipe decrypted temp files left behind by a crashed session (background)
+        TempFileManager.getInstance().cleanupOrphansAsync();
+        
         // Show professional splash screen
-        if (showSplash) {
-            SplashScreen.showSplash();
-        }
+        SplashScreen splash = showSplash ? SplashScreen.showSplash() : null;
+        logPhase("splash", START_NANOS);
         
         // Validate copyright integrity
         if (!validateCopyright()) {
@@ -56,42 +79,66 @@ public class VaultApplication {
             System.exit(1);
         }
         
-        // Set system look and feel to FlatLaf Dark theme
+        // Independent startup steps run concurrently; the login window needs
+        // the database and the theme, the tray preload is best effort
+        StartupProgress progress = new StartupProgress(splash, 3);
+        ExecutorService startupExecutor = Executors.newFixedThreadPool(3, r -> {
+            Thread thread = new Thread(r, "startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        CompletableFuture<Void> database = CompletableFuture.runAsync(
+            timed("database", progress, "Opening secure database...", VaultApplication::initializeDatabase), startupExecutor);
+        CompletableFuture<Void> lookAndFeel = CompletableFuture.runAsync(
+            timed("look and feel", progress, "Configuring user interface...", VaultApplication::installLookAndFeel), startupExecutor);
+        CompletableFuture<Void> tray = CompletableFuture.runAsync(
+            timed("system tray", progress, "Preparing system tray...", () -> SystemTrayManager.getInstance().preload()), startupExecutor);
+        
         try {
-            // Enable system specific enhancements
-            System.setProperty("apple.laf.useScreenMenuBar", "true");
-            System.setProperty("apple.awt.application.name", APPLICATION_NAME);
-            
-            UIManager.setLookAndFeel(new FlatDarkLaf());
-            
-            // Set custom UI properties for professional look
-            UIManager.put("Button.arc", 8);
-            UIManager.put("Component.arc", 8);
-            UIManager.put("TextComponent.arc", 8);
-            
-        } catch (Exception e) {
-            System.err.println("Failed to initialize FlatLaf theme: " + e.getMessage());
+            CompletableFuture.allOf(database, lookAndFeel).join();
+        } catch (CompletionException e) {
+            SecureErrorHandler.handleApplicationError(new Exception(e.getCause()));
+            if (splash != null) {
+                splash.close();
+            }
+            JOptionPane.showMessageDialog(null,
+                "Failed to start application: " + e.getCause().getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
         }
         
-        // Initialize database
-        DatabaseManager.getInstance().initializeDatabase();
-        
-        // Set application properties
-        System.setProperty("java.awt.headless", "false");
-        System.setProperty("awt.useSystemAAFontSettings", "on");
-        System.setProperty("swing.aatext", "true");
+        // The tray is only needed after login, so never wait on it here
+        tray.exceptionally(throwable -> {
+            System.err.println("System tray preload failed: " + throwable.getMessage());
+            return null;
+        });
+        startupExecutor.shutdown();
         
-        // Check for updates if enabled
-        if (checkUpdates) {
-            AutoUpdater.getInstance().checkForUpdatesAsync();
+        // AppCDS training run: exercise the common paths, then exit so the
+        // JVM writes the class archive
+        if (cdsTraining) {
+            if (splash != null) {
+                splash.close();
+            }
+            try {
+                tray.join();
+                CdsTraining.run();
+            } catch (Exception e) {
+                System.err.println("[cds-training] workload failed: " + e.getMessage());
+            }
+            System.exit(0);
         }
         
+        final boolean exitAfterFirstFrame = startupBenchmark;
+        final boolean checkForUpdates = checkUpdates;
+        
         // Run on Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
                 // Create and show login window
                 LoginWindow loginWindow = new LoginWindow();
-                loginWindow.setVisible(true);
                 
                 // Center window on screen
                 centerWindow(loginWindow);
@@ -99,6 +146,25 @@ public class VaultApplication {
                 // Set professional window icon
                 setApplicationIcon(loginWindow);
                 
+                if (splash != null) {
+                    splash.close();
+                }
+                loginWindow.setVisible(true);
+                logPhase("login window", START_NANOS);
+                
+                // Check for updates if enabled, once the login window is painted
+                if (checkForUpdates) {
+                    ServiceRegistry.getInstance().runAfterFirstPaint(loginWindow,
+                        () -> AutoUpdater.getInstance().checkForUpdatesAsync());
+                }
+                System.out.println("[startup] time since JVM start: "
+                    + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+                
+                // Used by startup_benchmark.sh to time the first frame
+                if (exitAfterFirstFrame) {
+                    SwingUtilities.invokeLater(() -> System.exit(0));
+                }
+                
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(null, 
                     "Failed to start application: Application startup error", 
@@ -109,6 +175,76 @@ public class VaultApplication {
         });
     }
     
+    private static void initializeDatabase() {
+        DatabaseManager.getInstance().initializeDatabase();
+    }
+    
+    /**
+     * Set system look and feel to FlatLaf Dark theme
+     */
+    private static void installLookAndFeel() {
+        try {
+            UIManager.setLookAndFeel(new FlatDarkLaf());
+            
+            // Set custom UI properties for professional look
+            UIManager.put("Button.arc", 8);
+            UIManager.put("Component.arc", 8);
+            UIManager.put("TextComponent.arc", 8);
+            
+        } catch (Exception e) {
+            System.err.println("Failed to initialize FlatLaf theme: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Wrap a startup step so it reports its duration and advances the splash
+     */
+    private static Runnable timed(String phase, StartupProgress progress, String status, Runnable step) {
+        return () -> {
+            progress.started(status);
+            long phaseStart = System.nanoTime();
+            try {
+                step.run();
+            } finally {
+                logPhase(phase, phaseStart);
+                progress.finished();
+            }
+        };
+    }
+    
+    private static void logPhase(String phase, long startNanos) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.println("[startup] " + phase + ": " + elapsedMillis + " ms");
+    }
+    
+    /**
+     * Drives the splash progress bar from completed startup steps
+     */
+    private static class StartupProgress {
+        private final SplashScreen splash;
+        private final int totalSteps;
+        private final AtomicInteger completedSteps = new AtomicInteger();
+        
+        StartupProgress(SplashScreen splash, int totalSteps) {
+            this.splash = splash;
+            this.totalSteps = totalSteps;
+        }
+        
+        void started(String status) {
+            if (splash != null) {
+                splash.setProgress(completedSteps.get() * 100 / totalSteps, status);
+            }
+        }
+        
+        void finished() {
+            int completed = completedSteps.incrementAndGet();
+            if (splash != null) {
+                splash.setProgress(completed * 100 / totalSteps,
+                    completed == totalSteps ? "Starting secure vault..." : "Loading security modules...");
+            }
+        }
+    }
+    
     /**
      * Centers a window on the screen
      */
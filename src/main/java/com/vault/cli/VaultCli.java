@@ -0,0 +1,435 @@
+/*
+ * Secure Vault Application
+ * Copyright (c) 2025 Lintshiwe Ntoampi. All rights reserved.
+ */
+package com.vault.cli;
+
+import com.vault.model.Admin;
+import com.vault.model.VaultFile;
+import com.vault.service.BlobReconciler;
+import com.vault.service.IntegrityScrubber;
+import com.vault.service.VaultService;
+import com.vault.util.DatabaseManager;
+import com.vault.util.SecurityUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Headless command line front end over VaultService for scripted jobs.
+ *
+ * Every result is printed to stdout as one JSON object per line; log output
+ * of the services goes to stderr. Credentials come from the environment
+ * (VAULT_USERNAME, VAULT_PASSWORD) or a password file, never from the
+ * command line where other users could read them. The AWT toolkit is never
+ * started, so it runs on servers without a display.
+ */
+public class VaultCli {
+    
+    // Exit codes
+    static final int EXIT_OK = 0;
+    static final int EXIT_PARTIAL_FAILURE = 1;
+    static final int EXIT_USAGE = 2;
+    static final int EXIT_AUTH_FAILED = 3;
+    static final int EXIT_INTEGRITY_PROBLEMS = 4;
+    static final int EXIT_ERROR = 5;
+    
+    private static final String USAGE = String.join("\n",
+        "Usage: vault-cli <command> [options]",
+        "",
+        "Commands:",
+        "  import <file|dir>... [--tags T] [--description D] [--parallel N]",
+        "  export <dir> [--id ID]... [--search TERM]",
+        "  list",
+        "  search <term>",
+        "  verify",
+        "  stats",
+        "  rekey                    new password from VAULT_NEW_PASSWORD or --new-password-file",
+        "",
+        "Options:",
+        "  --user NAME              admin user (default: VAULT_USERNAME or admin)",
+        "  --password-file FILE     read the password from FILE instead of VAULT_PASSWORD",
+        "  -h, --help               show this help",
+        "",
+        "Exit codes: 0 ok, 1 some items failed, 2 usage, 3 login failed,",
+        "            4 integrity problems found, 5 error (including vault in use by another process)");
+    
+    private final PrintStream out;
+    private final Options options;
+    private VaultService vaultService;
+    private Admin admin;
+    private String password;
+    
+    private VaultCli(PrintStream out, Options options) {
+        this.out = out;
+        this.options = options;
+    }
+    
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        
+        // Keep stdout for results; anything the services print goes to stderr
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+        
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+        
+        if (options.help) {
+            out.println(USAGE);
+            System.exit(EXIT_OK);
+            return;
+        }
+        
+        int exitCode;
+        try {
+            exitCode = new VaultCli(out, options).run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            exitCode = EXIT_USAGE;
+        } catch (Exception e) {
+            out.println(json("status", "error", "message", e.getMessage()));
+            exitCode = EXIT_ERROR;
+        }
+        System.exit(exitCode);
+    }
+    
+    private int run() throws Exception {
+        if (!login()) {
+            out.println(json("status", "error", "message", "Login failed for user " + options.user));
+            return EXIT_AUTH_FAILED;
+        }
+        
+        try {
+            switch (options.command) {
+                case "import": return importFiles();
+                case "export": return exportFiles();
+                case "list": return listFiles(vaultService.getAllFiles());
+                case "search": return listFiles(vaultService.searchFiles(options.requireArgument("search term")));
+                case "verify": return verify();
+                case "stats": return stats();
+                case "rekey": return rekey();
+                default: throw new IllegalArgumentException("Unknown command: " + options.command);
+            }
+        } finally {
+            vaultService.cleanup();
+        }
+    }
+    
+    private boolean login() throws IOException {
+        password = options.passwordFile != null
+            ? readPasswordFile(options.passwordFile)
+            : System.getenv("VAULT_PASSWORD");
+        if (password == null) {
+            throw new IllegalArgumentException("No password: set VAULT_PASSWORD or pass --password-file");
+        }
+        
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        dbManager.initializeDatabase();
+        admin = dbManager.authenticateAdmin(options.user, password);
+        if (admin == null) {
+            return false;
+        }
+        
+        vaultService = VaultService.getInstance();
+        vaultService.setEncryptionKey(password, admin.getSalt());
+        return true;
+    }
+    
+    private int importFiles() throws Exception {
+        if (options.arguments.isEmpty()) {
+            throw new IllegalArgumentException("import needs at least one file or directory");
+        }
+        
+        List<File> files = new ArrayList<>();
+        for (String argument : options.arguments) {
+            collectFiles(Paths.get(argument), files);
+        }
+        
+        // Each worker imports its share in group-committed batches
+        int parallelism = Math.max(1, Math.min(options.parallel, files.size()));
+        List<List<File>> shares = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            shares.add(new ArrayList<>());
+        }
+        for (int i = 0; i < files.size(); i++) {
+            shares.get(i % parallelism).add(files.get(i));
+        }
+        
+        AtomicInteger imported = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<File> share : shares) {
+                futures.add(executor.submit(() -> vaultService.storeFiles(share,
+                    file -> options.description != null ? options.description : "Imported from " + file.getParent(),
+                    options.tags,
+                    (file, vaultFile, error, completed, total) -> {
+                        if (error == null) {
+                            imported.incrementAndGet();
+                            print(json("status", "ok", "source", file.getPath(), "id", vaultFile.getId(),
+                                "size", vaultFile.getFileSize()));
+                        } else {
+                            failed.incrementAndGet();
+                            print(json("status", "failed", "source", file.getPath(), "message", error.getMessage()));
+                        }
+                    })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        print(json("summary", "import", "imported", imported.get(), "failed", failed.get()));
+        return failed.get() == 0 ? EXIT_OK : EXIT_PARTIAL_FAILURE;
+    }
+    
+    private void collectFiles(Path path, List<File> files) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> paths = Files.walk(path)) {
+                paths.filter(Files::isRegularFile).forEach(p -> files.add(p.toFile()));
+            }
+        } else if (Files.isRegularFile(path)) {
+            files.add(path.toFile());
+        } else {
+            throw new IllegalArgumentException("Not a file or directory: " + path);
+        }
+    }
+    
+    private int exportFiles() {
+        String outputDirectory = options.requireArgument("export directory");
+        
+        List<VaultFile> files;
+        if (options.search != null) {
+            files = vaultService.searchFiles(options.search);
+        } else {
+            files = vaultService.getAllFiles();
+            if (!options.ids.isEmpty()) {
+                files.removeIf(file -> !options.ids.contains(file.getId()));
+            }
+        }
+        
+        VaultService.ExportResult result = vaultService.exportFiles(files, outputDirectory,
+            (vaultFile, success, completed, total) -> print(json(
+                "status", success ? "ok" : "failed", "id", vaultFile.getId(), "name", vaultFile.getOriginalName())));
+        
+        print(json("summary", "export", "exported", result.getExportedCount(),
+            "failed", result.getFailedFiles().size(), "bytes", result.getBytesWritten()));
+        return result.hasFailures() ? EXIT_PARTIAL_FAILURE : EXIT_OK;
+    }
+    
+    private int listFiles(List<VaultFile> files) {
+        for (VaultFile file : files) {
+            print(json("id", file.getId(), "name", file.getOriginalName(), "type", file.getFileType(),
+                "size", file.getFileSize(), "stored", file.getStoredSize(),
+                "added", file.getDateAdded() != null ? file.getDateAdded().toString() : null,
+                "description", file.getDescription(), "tags", file.getTags()));
+        }
+        return EXIT_OK;
+    }
+    
+    private int verify() {
+        IntegrityScrubber.ScrubReport scrub = vaultService.scrubIntegrity();
+        BlobReconciler.ReconcileReport reconcile = vaultService.reconcileBlobs(false);
+        List<VaultFile> failing = vaultService.getFilesFailingIntegrity();
+        
+        for (VaultFile file : failing) {
+            print(json("status", "failed", "id", file.getId(), "name", file.getOriginalName()));
+        }
+        for (String blob : reconcile.getOrphanedBlobs()) {
+            print(json("status", "orphaned", "blob", blob));
+        }
+        
+        print(json("summary", "verify", "checked", scrub.getCheckedCount(), "failed", failing.size(),
+            "orphaned", reconcile.getOrphanedBlobs().size(), "dangling", reconcile.getDanglingFileIds().size()));
+        return failing.isEmpty() && !reconcile.hasMismatches() ? EXIT_OK : EXIT_INTEGRITY_PROBLEMS;
+    }
+    
+    private int stats() {
+        VaultService.VaultStats stats = vaultService.getVaultStats();
+        VaultService.DiskSpaceStatus disk = vaultService.checkDiskSpace();
+        
+        print(json("files", stats.getFileCount(), "originalBytes", stats.getTotalSize(),
+            "storedBytes", stats.getStoredSize(), "freeBytes", disk.getUsableSpace(),
+            "totalBytes", disk.getTotalSpace(), "enoughSpace", disk.hasEnoughSpace()));
+        return EXIT_OK;
+    }
+    
+    private int rekey() throws IOException {
+        String newPassword = options.newPasswordFile != null
+            ? readPasswordFile(options.newPasswordFile)
+            : System.getenv("VAULT_NEW_PASSWORD");
+        if (newPassword == null || newPassword.isEmpty()) {
+            throw new IllegalArgumentException("No new password: set VAULT_NEW_PASSWORD or pass --new-password-file");
+        }
+        
+        String newSalt = SecurityUtil.generateSalt();
+        if (!vaultService.reEncryptAllFiles(password, admin.getSalt(), newPassword, newSalt)) {
+            print(json("status", "failed", "message", "Re-encryption failed; credentials unchanged"));
+            return EXIT_ERROR;
+        }
+        if (!DatabaseManager.getInstance().updateAdminCredentials(admin.getId(), admin.getUsername(), newPassword, newSalt)) {
+            print(json("status", "failed", "message", "Files re-encrypted but the new credentials could not be saved"));
+            return EXIT_ERROR;
+        }
+        
+        print(json("status", "ok", "files", vaultService.getVaultStats().getFileCount()));
+        return EXIT_OK;
+    }
+    
+    private static String readPasswordFile(String path) throws IOException {
+        String content = Files.readString(Paths.get(path), StandardCharsets.UTF_8);
+        // A trailing newline from `echo secret > file` is not part of the password
+        return content.endsWith("\r\n") ? content.substring(0, content.length() - 2)
+            : content.endsWith("\n") ? content.substring(0, content.length() - 1) : content;
+    }
+    
+    private synchronized void print(String line) {
+        out.println(line);
+    }
+    
+    /**
+     * Build a one-line JSON object from alternating keys and values
+     */
+    static String json(Object... keyValues) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < keyValues.length; i += 2) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, String.valueOf(keyValues[i]));
+            json.append(':');
+            
+            Object value = keyValues[i + 1];
+            if (value == null) {
+                json.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                json.append(value);
+            } else {
+                appendString(json, value.toString());
+            }
+        }
+        return json.append('}').toString();
+    }
+    
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+    
+    /**
+     * Parsed command line
+     */
+    private static class Options {
+        private String command;
+        private final List<String> arguments = new ArrayList<>();
+        private final List<Long> ids = new ArrayList<>();
+        private String user = System.getenv().getOrDefault("VAULT_USERNAME", "admin");
+        private String passwordFile;
+        private String newPasswordFile;
+        private String tags = "cli-import";
+        private String description;
+        private String search;
+        private int parallel = Math.min(4, Runtime.getRuntime().availableProcessors());
+        private boolean help;
+        
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--user": options.user = value(args, ++i, arg); break;
+                    case "--password-file": options.passwordFile = value(args, ++i, arg); break;
+                    case "--new-password-file": options.newPasswordFile = value(args, ++i, arg); break;
+                    case "--tags": options.tags = value(args, ++i, arg); break;
+                    case "--description": options.description = value(args, ++i, arg); break;
+                    case "--search": options.search = value(args, ++i, arg); break;
+                    case "--id": options.ids.add(parseNumber(value(args, ++i, arg), arg)); break;
+                    case "--parallel": options.parallel = (int) parseNumber(value(args, ++i, arg), arg); break;
+                    case "--help":
+                    case "-h": options.help = true; break;
+                    default:
+                        if (arg.startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option: " + arg);
+                        }
+                        if (options.command == null) {
+                            options.command = arg;
+                        } else {
+                            options.arguments.add(arg);
+                        }
+                }
+            }
+            
+            if (options.help) {
+                return options;
+            }
+            if (options.command == null) {
+                throw new IllegalArgumentException("No command given");
+            }
+            if (options.parallel < 1) {
+                throw new IllegalArgumentException("--parallel must be at least 1");
+            }
+            return options;
+        }
+        
+        String requireArgument(String name) {
+            if (arguments.size() != 1) {
+                throw new IllegalArgumentException(command + " needs exactly one " + name);
+            }
+            return arguments.get(0);
+        }
+        
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            return args[index];
+        }
+        
+        private static long parseNumber(String value, String option) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(option + " needs a number: " + value);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.vault.config;
 
 import java.security.SecureRandom;
+import java.util.Set;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -24,6 +25,68 @@ public class SecurityConfig {
     public static final long MAX_FILE_SIZE = 500L * 1024 * 1024; // 500MB
     public static final long MAX_TOTAL_VAULT_SIZE = 5L * 1024 * 1024 * 1024; // 5GB
     
+    // Pack storage (small files share segment files instead of one blob each)
+    public static final long PACK_THRESHOLD = 64L * 1024; // 64KB
+    public static final long PACK_SEGMENT_SIZE = 64L * 1024 * 1024; // 64MB
+    
+    // Memory-mapped decryption for large blobs
+    public static final long MAPPED_READ_THRESHOLD = 8L * 1024 * 1024; // 8MB
+    public static final long MAPPED_WINDOW_SIZE = 64L * 1024 * 1024; // 64MB
+    
+    // Bulk export (concurrent files, bounded by disk rather than CPU)
+    public static final int EXPORT_MAX_PARALLELISM = 4;
+    
+    // Encrypted preview cache
+    public static final int PREVIEW_MAX_DIMENSION = 160; // pixels
+    public static final int PREVIEW_TEXT_LENGTH = 500; // characters
+    public static final long PREVIEW_MAX_SOURCE_SIZE = 20L * 1024 * 1024; // 20MB
+    public static final long PREVIEW_CACHE_MAX_BYTES = 32L * 1024 * 1024; // 32MB
+    public static final long PREVIEW_QUEUE_MAX_BYTES = 64L * 1024 * 1024; // sources waiting for a preview
+    
+    // Decrypted copies kept for repeated opens during a session
+    public static final long DECRYPTED_CACHE_MAX_BYTES = 512L * 1024 * 1024; // 512MB
+    
+    // Loopback media streaming
+    public static final long STREAM_TOKEN_IDLE_TIMEOUT = 30 * 60 * 1000; // 30 minutes
+    public static final int STREAM_SERVER_THREADS = 4;
+    
+    // Decrypted temp file lifecycle
+    public static final long TEMP_FILE_TTL = 30 * 60 * 1000; // 30 minutes
+    public static final long TEMP_RELEASE_GRACE = 60 * 1000; // 1 minute for the viewer to open the file
+    public static final long TEMP_WIPE_INTERVAL = 30 * 1000; // 30 seconds
+    
+    // Bulk import group commit
+    public static final int IMPORT_GROUP_MAX_FILES = 64;
+    public static final long IMPORT_GROUP_MAX_BYTES = 64L * 1024 * 1024; // 64MB of source data per commit
+    
+    // Folder import scanning
+    public static final int SCAN_QUEUE_CAPACITY = 4096; // files found ahead of the importer
+    public static final Set<String> IMPORT_EXCLUDED_NAMES = Set.of(".DS_Store", "Thumbs.db", "desktop.ini");
+    public static final Set<String> IMPORT_EXCLUDED_EXTENSIONS = Set.of("tmp", "part", "crdownload", "partial");
+    
+    // Async service pools
+    public static final int ASYNC_CRYPTO_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    public static final int ASYNC_IO_THREADS = 4;
+    
+    // Disk space monitoring
+    public static final long DISK_SPACE_SAMPLE_INTERVAL = 15 * 1000; // 15 seconds
+    
+    // Scheduled backups
+    public static final long BACKUP_MAX_BYTES_PER_SECOND = 20L * 1024 * 1024; // 20MB/s
+    
+    // Integrity scrubbing
+    public static final long SCRUB_INTERVAL = 24 * 60 * 60 * 1000; // 24 hours between checks of a file
+    public static final int SCRUB_MAX_PARALLELISM = 4;
+    public static final long SCRUB_MAX_BYTES_PER_SECOND = 50L * 1024 * 1024; // 50MB/s
+    public static final int SCRUB_BATCH_SIZE = 200;
+    public static final long RECONCILE_ORPHAN_GRACE = 60 * 60 * 1000; // 1 hour before an unreferenced blob counts as orphaned
+    
+    // Watch folder auto-import
+    public static final long WATCH_DEBOUNCE = 2 * 1000; // 2 seconds without events before a file is checked
+    public static final long WATCH_POLL_INTERVAL = 500; // 500ms
+    public static final int WATCH_BATCH_MAX_FILES = 64;
+    public static final int WATCH_INGEST_PARALLELISM = 2;
+    
     // Rate limiting
     public static final int MAX_LOGIN_ATTEMPTS = 5;
     public static final long LOGIN_LOCKOUT_TIME = 15 * 60 * 1000; // 15 minutes
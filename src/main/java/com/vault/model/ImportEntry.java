@@ -0,0 +1,54 @@
+package com.vault.model;
+
+/**
+ * Model class representing one source file in a folder import manifest
+ */
+public class ImportEntry {
+    public static final String STATUS_IMPORTED = "imported";
+    public static final String STATUS_FAILED = "failed";
+    
+    private long sessionId;
+    private String sourcePath;
+    private long fileSize;
+    private long modifiedAt;
+    private String status;
+    private Long vaultFileId;
+    
+    // Constructors
+    public ImportEntry() {}
+    
+    public ImportEntry(long sessionId, String sourcePath, long fileSize, long modifiedAt, String status, Long vaultFileId) {
+        this.sessionId = sessionId;
+        this.sourcePath = sourcePath;
+        this.fileSize = fileSize;
+        this.modifiedAt = modifiedAt;
+        this.status = status;
+        this.vaultFileId = vaultFileId;
+    }
+    
+    // Getters and Setters
+    public long getSessionId() { return sessionId; }
+    public void setSessionId(long sessionId) { this.sessionId = sessionId; }
+    
+    public String getSourcePath() { return sourcePath; }
+    public void setSourcePath(String sourcePath) { this.sourcePath = sourcePath; }
+    
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+    
+    public long getModifiedAt() { return modifiedAt; }
+    public void setModifiedAt(long modifiedAt) { this.modifiedAt = modifiedAt; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public Long getVaultFileId() { return vaultFileId; }
+    public void setVaultFileId(Long vaultFileId) { this.vaultFileId = vaultFileId; }
+    
+    /**
+     * Whether this entry still describes the given file, so it need not be imported again
+     */
+    public boolean matches(long fileSize, long modifiedAt) {
+        return STATUS_IMPORTED.equals(status) && this.fileSize == fileSize && this.modifiedAt == modifiedAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.vault.model;
+
+/**
+ * Model class representing the latest integrity scrub result for a vault file
+ */
+public class IntegrityCheck {
+    public static final String STATUS_OK = "ok";
+    public static final String STATUS_CORRUPT = "corrupt";
+    public static final String STATUS_MISSING = "missing";
+    public static final String STATUS_UNREADABLE = "unreadable";
+    
+    private long fileId;
+    private String status;
+    private long checkedAt;
+    private String detail;
+    
+    // Constructors
+    public IntegrityCheck() {}
+    
+    public IntegrityCheck(long fileId, String status, String detail) {
+        this.fileId = fileId;
+        this.status = status;
+        this.detail = detail;
+        this.checkedAt = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public long getFileId() { return fileId; }
+    public void setFileId(long fileId) { this.fileId = fileId; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public long getCheckedAt() { return checkedAt; }
+    public void setCheckedAt(long checkedAt) { this.checkedAt = checkedAt; }
+    
+    public String getDetail() { return detail; }
+    public void setDetail(String detail) { this.detail = detail; }
+    
+    public boolean isOk() {
+        return STATUS_OK.equals(status);
+    }
+}
@@ -0,0 +1,42 @@
+package com.vault.model;
+
+/**
+ * Model class representing an encrypted record stored inside a pack segment
+ */
+public class PackRecord {
+    private long id;
+    private String segment;
+    private long offset;
+    private int length;
+    private boolean deleted;
+    
+    // Constructors
+    public PackRecord() {}
+    
+    public PackRecord(String segment, long offset, int length) {
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    
+    public String getSegment() { return segment; }
+    public void setSegment(String segment) { this.segment = segment; }
+    
+    public long getOffset() { return offset; }
+    public void setOffset(long offset) { this.offset = offset; }
+    
+    public int getLength() { return length; }
+    public void setLength(int length) { this.length = length; }
+    
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+    
+    @Override
+    public String toString() {
+        return segment + "@" + offset + " (" + length + " bytes)";
+    }
+}
@@ -0,0 +1,44 @@
+package com.vault.model;
+
+/**
+ * Model class representing an encrypted preview (thumbnail or text snippet) of a vault file
+ */
+public class Preview {
+    public static final String KIND_IMAGE = "image";
+    public static final String KIND_TEXT = "text";
+    
+    private long fileId;
+    private String kind;
+    private byte[] data;
+    private long lastAccess;
+    
+    // Constructors
+    public Preview() {}
+    
+    public Preview(long fileId, String kind, byte[] data) {
+        this.fileId = fileId;
+        this.kind = kind;
+        this.data = data;
+        this.lastAccess = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public long getFileId() { return fileId; }
+    public void setFileId(long fileId) { this.fileId = fileId; }
+    
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+    
+    public long getLastAccess() { return lastAccess; }
+    public void setLastAccess(long lastAccess) { this.lastAccess = lastAccess; }
+    
+    public boolean isImage() { return KIND_IMAGE.equals(kind); }
+    
+    @Override
+    public String toString() {
+        return kind + " preview of file " + fileId + " (" + (data == null ? 0 : data.length) + " bytes)";
+    }
+}
@@ -14,6 +14,9 @@ public class VaultFile {
     private LocalDateTime dateAdded;
     private String description;
     private String tags;
+    private int blobVersion = 1;
+    private long storedSize;
+    private Long checksum;
     
     // Constructors
     public VaultFile() {}
@@ -63,6 +66,15 @@ public class VaultFile {
     public String getTags() { return tags; }
     public void setTags(String tags) { this.tags = tags; }
     
+    public int getBlobVersion() { return blobVersion; }
+    public void setBlobVersion(int blobVersion) { this.blobVersion = blobVersion; }
+    
+    public long getStoredSize() { return storedSize; }
+    public void setStoredSize(long storedSize) { this.storedSize = storedSize; }
+    
+    public Long getChecksum() { return checksum; }
+    public void setChecksum(Long checksum) { this.checksum = checksum; }
+    
     @Override
     public String toString() {
         return originalName + " (" + fileType + ")";
@@ -31,7 +31,7 @@ public class AutoUpdater {
         this.prefs = Preferences.userNodeForPackage(AutoUpdater.class);
     }
     
-    public static AutoUpdater getInstance() {
+    public static synchronized AutoUpdater getInstance() {
         if (instance == null) {
             instance = new AutoUpdater();
         }
@@ -0,0 +1,376 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.util.DatabaseManager;
+import com.vault.util.IoThrottle;
+import com.vault.util.SecureErrorHandler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.prefs.Preferences;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Scheduled, incremental backup of the vault to a configured location.
+ *
+ * Each run takes a consistent snapshot of the database with VACUUM INTO and
+ * then mirrors the encrypted blobs and pack segments that snapshot references.
+ * A backup copy is only removed once the snapshot no longer references it.
+ * If a referenced file disappears from the vault before it could be copied,
+ * the run fails without publishing its snapshot, so a published snapshot
+ * never points at blobs the backup does not hold. The manifest from the
+ * last run records what was copied, so only new or changed blobs are copied
+ * again; pack segments are append-only and only their new tail is copied.
+ * Progress is journaled as it goes, so an interrupted run resumes where it
+ * stopped. Copies are rate limited to stay out of the way of foreground work.
+ */
+public class BackupService {
+    
+    private static final String BACKUP_DIRECTORY_NAME = "SecureVaultBackup";
+    private static final String MANIFEST_FILE = "manifest.txt";
+    private static final String JOURNAL_FILE = "manifest.partial";
+    private static final String SNAPSHOT_FILE = "vault.db";
+    private static final String PREF_LAST_BACKUP = "backup_last_run";
+    private static final int COPY_CHUNK_SIZE = 1024 * 1024;
+    private static final int TAIL_CHECK_SIZE = 4096;
+    
+    private static BackupService instance;
+    private final Preferences prefs;
+    private final Path vaultRoot;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private ScheduledFuture<?> scheduledRun;
+    private boolean enabled;
+    private String location;
+    private long intervalMillis;
+    
+    private BackupService() {
+        this.prefs = Preferences.userNodeForPackage(BackupService.class);
+        this.vaultRoot = Paths.get(System.getProperty("user.home"), ".securevault");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vault-backup");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    public static synchronized BackupService getInstance() {
+        if (instance == null) {
+            instance = new BackupService();
+        }
+        return instance;
+    }
+    
+    /**
+     * Apply the backup settings and (re)schedule the next run
+     */
+    public synchronized void configure(boolean enabled, String location, int intervalHours) {
+        this.enabled = enabled && location != null && !location.trim().isEmpty();
+        this.location = location;
+        this.intervalMillis = TimeUnit.HOURS.toMillis(Math.max(1, intervalHours));
+        
+        if (scheduledRun != null) {
+            scheduledRun.cancel(false);
+            scheduledRun = null;
+        }
+        if (!this.enabled) {
+            return;
+        }
+        
+        // An interrupted run resumes right away; otherwise wait out the interval
+        long sinceLastRun = System.currentTimeMillis() - prefs.getLong(PREF_LAST_BACKUP, 0);
+        long initialDelay = Files.exists(backupDirectory().resolve(JOURNAL_FILE))
+                ? 0 : Math.max(0, intervalMillis - sinceLastRun);
+        
+        scheduledRun = scheduler.scheduleWithFixedDelay(this::runScheduled, initialDelay, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Run a backup now on the backup thread
+     */
+    public synchronized void runNowAsync() {
+        if (enabled) {
+            scheduler.execute(this::runScheduled);
+        }
+    }
+    
+    public long getLastBackupTime() {
+        return prefs.getLong(PREF_LAST_BACKUP, 0);
+    }
+    
+    private void runScheduled() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            BackupResult result = backup(backupDirectory());
+            System.out.println("Backup completed: " + result.getCopiedFiles() + " file(s), "
+                    + result.getCopiedBytes() + " bytes copied, " + result.getSkippedFiles() + " unchanged");
+        } catch (Exception e) {
+            // The journal is kept, so the next run picks up where this one stopped
+            SecureErrorHandler.handleApplicationError(e);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private synchronized Path backupDirectory() {
+        return Paths.get(location, BACKUP_DIRECTORY_NAME);
+    }
+    
+    /**
+     * Back up the database and all blobs into the given directory
+     */
+    public BackupResult backup(Path target) throws IOException {
+        Path blobTarget = target.resolve("blobs");
+        Files.createDirectories(blobTarget);
+        
+        // Consistent database snapshot first; it alone decides what the backup keeps
+        Path snapshotPartial = target.resolve(SNAPSHOT_FILE + ".partial");
+        Files.deleteIfExists(snapshotPartial);
+        DatabaseManager.getInstance().snapshotTo(snapshotPartial.toFile());
+        Set<String> referenced = snapshotReferences(snapshotPartial.toFile());
+        
+        Map<String, String> copied = readManifest(target.resolve(MANIFEST_FILE));
+        copied.putAll(readManifest(target.resolve(JOURNAL_FILE)));
+        
+        IoThrottle throttle = new IoThrottle(SecurityConfig.BACKUP_MAX_BYTES_PER_SECOND);
+        long copiedBytes = 0;
+        int copiedFiles = 0;
+        int skippedFiles = 0;
+        int missingFiles = 0;
+        
+        try (BufferedWriter journal = Files.newBufferedWriter(target.resolve(JOURNAL_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String relative : referenced) {
+                Path source = vaultRoot.resolve(relative);
+                Path destination = blobTarget.resolve(relative);
+                String state;
+                
+                try {
+                    state = Files.size(source) + "\t" + Files.getLastModifiedTime(source).toMillis();
+                    if (state.equals(copied.get(relative)) && Files.exists(destination)) {
+                        skippedFiles++;
+                        continue;
+                    }
+                    
+                    copiedBytes += relative.startsWith("packs/")
+                            ? appendTail(source, destination, throttle)
+                            : copyBlob(source, destination, throttle);
+                } catch (NoSuchFileException e) {
+                    // Deleted or compacted away after the snapshot; the copy from an earlier run stays
+                    if (!Files.exists(destination)) {
+                        missingFiles++;
+                    }
+                    continue;
+                }
+                copiedFiles++;
+                
+                journal.write(relative + "\t" + state);
+                journal.newLine();
+                journal.flush();
+                copied.put(relative, state);
+            }
+        }
+        if (missingFiles > 0) {
+            // The journal stays, so the next run takes a new snapshot and resumes
+            Files.deleteIfExists(snapshotPartial);
+            throw new IOException("Backup not published: " + missingFiles
+                    + " file(s) were removed from the vault before they could be copied");
+        }
+        
+        // Mirror deletions, but only of copies the new snapshot no longer references
+        for (Path stale : listRegularFiles(blobTarget)) {
+            String relative = blobTarget.relativize(stale).toString().replace(File.separatorChar, '/');
+            if (!referenced.contains(relative)) {
+                Files.deleteIfExists(stale);
+            }
+        }
+        
+        // Publish the run: snapshot, then manifest, then drop the journal
+        Files.move(snapshotPartial, target.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING);
+        writeManifest(target, copied, referenced);
+        Files.deleteIfExists(target.resolve(JOURNAL_FILE));
+        prefs.putLong(PREF_LAST_BACKUP, System.currentTimeMillis());
+        
+        return new BackupResult(copiedFiles, skippedFiles, copiedBytes);
+    }
+    
+    /**
+     * Backup-relative paths of every blob and pack segment the snapshot references
+     */
+    private Set<String> snapshotReferences(File snapshot) {
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        Path filesRoot = vaultRoot.resolve("files").toAbsolutePath().normalize();
+        Set<String> referenced = new TreeSet<>();
+        
+        for (String encryptedPath : dbManager.getSnapshotBlobPaths(snapshot)) {
+            Path blob = Paths.get(encryptedPath).toAbsolutePath().normalize();
+            if (blob.startsWith(filesRoot)) {
+                referenced.add("files/" + filesRoot.relativize(blob).toString().replace(File.separatorChar, '/'));
+            }
+        }
+        for (String segment : dbManager.getSnapshotPackSegments(snapshot)) {
+            referenced.add("packs/" + segment);
+        }
+        return referenced;
+    }
+    
+    /**
+     * Copy a standalone blob through a temp file so a partial copy is never mistaken for a complete one
+     */
+    private long copyBlob(Path source, Path destination, IoThrottle throttle) throws IOException {
+        Files.createDirectories(destination.getParent());
+        Path temp = destination.resolveSibling(destination.getFileName() + ".partial");
+        
+        long copied;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            copied = copyRange(in, 0, in.size(), out, throttle);
+            out.force(false);
+        }
+        Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return copied;
+    }
+    
+    /**
+     * Pack segments are append-only under a given name, so only the bytes
+     * past what the backup already holds need copying
+     */
+    private long appendTail(Path source, Path destination, IoThrottle throttle) throws IOException {
+        Files.createDirectories(destination.getParent());
+        
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long sourceSize = in.size();
+            long start = out.size() <= sourceSize && sameTail(in, out, out.size()) ? out.size() : 0;
+            out.truncate(start);
+            
+            long copied = copyRange(in, start, sourceSize - start, out, throttle);
+            out.force(false);
+            return copied;
+        }
+    }
+    
+    /**
+     * Guard against a segment name being reused after compaction: the bytes
+     * just before the resume point must match
+     */
+    private boolean sameTail(FileChannel in, FileChannel out, long end) throws IOException {
+        int length = (int) Math.min(TAIL_CHECK_SIZE, end);
+        if (length == 0) {
+            return true;
+        }
+        
+        ByteBuffer expected = ByteBuffer.allocate(length);
+        ByteBuffer actual = ByteBuffer.allocate(length);
+        while (expected.hasRemaining() && in.read(expected, end - length + expected.position()) > 0) {
+            // fill
+        }
+        while (actual.hasRemaining() && out.read(actual, end - length + actual.position()) > 0) {
+            // fill
+        }
+        return expected.flip().equals(actual.flip());
+    }
+    
+    private long copyRange(FileChannel in, long position, long length, FileChannel out, IoThrottle throttle) throws IOException {
+        long copied = 0;
+        while (copied < length) {
+            long chunk = Math.min(COPY_CHUNK_SIZE, length - copied);
+            long transferred = in.transferTo(position + copied, chunk, out.position(position + copied));
+            if (transferred <= 0) {
+                break;
+            }
+            copied += transferred;
+            throttle.acquire(transferred);
+        }
+        return copied;
+    }
+    
+    private List<Path> listRegularFiles(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                        .filter(path -> !path.getFileName().toString().endsWith(".partial"))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+    
+    private Map<String, String> readManifest(Path manifest) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        if (!Files.exists(manifest)) {
+            return entries;
+        }
+        
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (line.startsWith("#") || tab < 0) {
+                continue;
+            }
+            entries.put(line.substring(0, tab), line.substring(tab + 1));
+        }
+        return entries;
+    }
+    
+    private void writeManifest(Path target, Map<String, String> copied, Set<String> current) throws IOException {
+        Path temp = target.resolve(MANIFEST_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# Secure Vault backup completed " + LocalDateTime.now());
+            writer.newLine();
+            for (String relative : current.stream().sorted().collect(Collectors.toList())) {
+                String state = copied.get(relative);
+                if (state != null) {
+                    writer.write(relative + "\t" + state);
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, target.resolve(MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Inner class for backup run results
+     */
+    public static class BackupResult {
+        private final int copiedFiles;
+        private final int skippedFiles;
+        private final long copiedBytes;
+        
+        public BackupResult(int copiedFiles, int skippedFiles, long copiedBytes) {
+            this.copiedFiles = copiedFiles;
+            this.skippedFiles = skippedFiles;
+            this.copiedBytes = copiedBytes;
+        }
+        
+        public int getCopiedFiles() { return copiedFiles; }
+        public int getSkippedFiles() { return skippedFiles; }
+        public long getCopiedBytes() { return copiedBytes; }
+    }
+}
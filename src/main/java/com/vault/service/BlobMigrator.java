@@ -0,0 +1,131 @@
+package com.vault.service;
+
+import com.vault.model.VaultFile;
+import com.vault.util.BlobLayout;
+import com.vault.util.DatabaseManager;
+import com.vault.util.SecureErrorHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background migrator that moves legacy flat blobs into the sharded layout
+ */
+public class BlobMigrator {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static BlobMigrator instance;
+    private final DatabaseManager dbManager;
+    private Thread migrationThread;
+    
+    private BlobMigrator() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+    
+    public static synchronized BlobMigrator getInstance() {
+        if (instance == null) {
+            instance = new BlobMigrator();
+        }
+        return instance;
+    }
+    
+    /**
+     * Start the migration on a low priority daemon thread (no-op if already running)
+     */
+    public synchronized void startAsync(String vaultDirectory) {
+        if (migrationThread != null && migrationThread.isAlive()) {
+            return;
+        }
+        
+        migrationThread = new Thread(() -> {
+            try {
+                int migrated = migrate(vaultDirectory);
+                if (migrated > 0) {
+                    System.out.println("Migrated " + migrated + " blobs to sharded layout.");
+                }
+            } catch (Exception e) {
+                SecureErrorHandler.handleApplicationError(e);
+            }
+        }, "blob-migrator");
+        migrationThread.setDaemon(true);
+        migrationThread.setPriority(Thread.MIN_PRIORITY);
+        migrationThread.start();
+    }
+    
+    /**
+     * Wait for a running migration to finish; blobs it is moving are in
+     * neither the flat nor the sharded listing until then
+     */
+    public void awaitIdle() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = migrationThread;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.join();
+        }
+    }
+    
+    /**
+     * Move every flat blob referenced by the database into its shard directory.
+     * Paths are committed in batches, and a move that happened before a crash
+     * is picked up again because the sharded target already exists.
+     */
+    public int migrate(String vaultDirectory) {
+        List<VaultFile> files = dbManager.getAllVaultFiles();
+        Map<Long, String> pending = new LinkedHashMap<>();
+        int migrated = 0;
+        
+        for (VaultFile vaultFile : files) {
+            String currentPath = vaultFile.getEncryptedPath();
+            if (currentPath == null || PackStore.isPackPath(currentPath)
+                    || BlobLayout.isSharded(vaultDirectory, currentPath)) {
+                continue;
+            }
+            
+            File flatBlob = new File(currentPath);
+            File shardedBlob = new File(BlobLayout.shardedPath(vaultDirectory, flatBlob.getName()));
+            
+            try {
+                if (flatBlob.exists()) {
+                    moveBlob(flatBlob.toPath(), shardedBlob.toPath());
+                } else if (!shardedBlob.exists()) {
+                    // Nothing to migrate - the reconciliation job reports missing blobs
+                    continue;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to migrate blob for " + vaultFile.getOriginalName() + ": " + e.getMessage());
+                continue;
+            }
+            
+            pending.put(vaultFile.getId(), shardedBlob.getAbsolutePath());
+            if (pending.size() >= BATCH_SIZE) {
+                migrated += dbManager.updateEncryptedPaths(pending);
+                pending.clear();
+            }
+        }
+        
+        if (!pending.isEmpty()) {
+            migrated += dbManager.updateEncryptedPaths(pending);
+        }
+        
+        return migrated;
+    }
+    
+    private void moveBlob(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.IntegrityCheck;
+import com.vault.util.BlobLayout;
+import com.vault.util.DatabaseManager;
+import com.vault.util.SecureErrorHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Background job that reconciles the blob directory with the vault_files table.
+ *
+ * A crash between writing a blob and inserting its row leaves an orphaned
+ * .enc file; a crash or failed delete the other way round leaves a row whose
+ * blob is gone. Both sides are listed once, sorted by blob name and
+ * merge-joined, so every blob and row is checked in a single linear pass.
+ * Orphans are moved to a quarantine directory rather than deleted, and rows
+ * without a blob are flagged as missing so they surface with the integrity
+ * warnings.
+ */
+public class BlobReconciler {
+    
+    private static final String QUARANTINE_DIRECTORY = "orphaned";
+    
+    private static BlobReconciler instance;
+    private final DatabaseManager dbManager;
+    private Thread reconcileThread;
+    
+    private BlobReconciler() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+    
+    public static synchronized BlobReconciler getInstance() {
+        if (instance == null) {
+            instance = new BlobReconciler();
+        }
+        return instance;
+    }
+    
+    /**
+     * Reconcile and repair on a low priority daemon thread (no-op if already running)
+     */
+    public synchronized void startAsync(String vaultDirectory) {
+        if (reconcileThread != null && reconcileThread.isAlive()) {
+            return;
+        }
+        
+        reconcileThread = new Thread(() -> {
+            try {
+                ReconcileReport report = reconcile(vaultDirectory, true);
+                if (report.hasMismatches()) {
+                    System.out.println("Blob reconciliation: " + report.getOrphanedBlobs().size()
+                        + " orphaned blob(s) quarantined, " + report.getDanglingFileIds().size()
+                        + " file(s) without a blob flagged.");
+                }
+            } catch (Exception e) {
+                SecureErrorHandler.handleApplicationError(e);
+            }
+        }, "blob-reconciler");
+        reconcileThread.setDaemon(true);
+        reconcileThread.setPriority(Thread.MIN_PRIORITY);
+        reconcileThread.start();
+    }
+    
+    /**
+     * Compare blobs on disk with the rows that reference them; with repair
+     * set, quarantine orphans and flag rows whose blob is missing
+     */
+    public ReconcileReport reconcile(String vaultDirectory, boolean repair) {
+        // A legacy blob moved into a shard the walk already passed would be missed
+        try {
+            BlobMigrator.getInstance().awaitIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Blob reconciliation interrupted", e);
+        }
+        
+        long orphanCutoff = System.currentTimeMillis() - SecurityConfig.RECONCILE_ORPHAN_GRACE;
+        LocalDateTime rowCutoff = LocalDateTime.now().minus(SecurityConfig.RECONCILE_ORPHAN_GRACE, ChronoUnit.MILLIS);
+        
+        // Disk side: blob names only, sorted
+        List<File> blobs = BlobLayout.listBlobs(vaultDirectory);
+        String[] blobNames = new String[blobs.size()];
+        for (int i = 0; i < blobNames.length; i++) {
+            blobNames[i] = blobs.get(i).getName();
+        }
+        Arrays.sort(blobNames);
+        
+        // Database side: (blob name, file id) of standalone blobs, sorted
+        List<BlobReference> references = new ArrayList<>();
+        dbManager.scanStandaloneBlobs(file -> {
+            references.add(new BlobReference(new File(file.getEncryptedPath()).getName(), file.getId(),
+                file.getDateAdded() != null && file.getDateAdded().isAfter(rowCutoff)));
+            return true;
+        });
+        references.sort(Comparator.comparing(reference -> reference.blobName));
+        
+        List<String> orphaned = new ArrayList<>();
+        List<Long> dangling = new ArrayList<>();
+        int diskIndex = 0;
+        int rowIndex = 0;
+        while (diskIndex < blobNames.length || rowIndex < references.size()) {
+            int order;
+            if (diskIndex == blobNames.length) {
+                order = 1;
+            } else if (rowIndex == references.size()) {
+                order = -1;
+            } else {
+                order = blobNames[diskIndex].compareTo(references.get(rowIndex).blobName);
+            }
+            
+            if (order == 0) {
+                // Several rows may share a blob only after a botched restore; all are backed
+                String blobName = blobNames[diskIndex];
+                while (rowIndex < references.size() && references.get(rowIndex).blobName.equals(blobName)) {
+                    rowIndex++;
+                }
+                while (diskIndex < blobNames.length && blobNames[diskIndex].equals(blobName)) {
+                    diskIndex++;
+                }
+            } else if (order < 0) {
+                orphaned.add(blobNames[diskIndex++]);
+            } else {
+                BlobReference reference = references.get(rowIndex++);
+                // Recent rows and blobs stored after the disk listing are not dangling
+                if (!reference.recent && !BlobLayout.locate(vaultDirectory, reference.blobName).exists()) {
+                    dangling.add(reference.fileId);
+                }
+            }
+        }
+        
+        // Blobs newer than the grace period may belong to an import whose row
+        // is not written yet; they are neither reported nor moved
+        orphaned = settledOrphans(vaultDirectory, orphaned, orphanCutoff);
+        
+        if (repair) {
+            orphaned = quarantine(vaultDirectory, orphaned);
+            flagMissing(dangling);
+        }
+        
+        return new ReconcileReport(blobNames.length, references.size(), orphaned, dangling);
+    }
+    
+    /**
+     * Keep the orphans that still exist and are older than the grace cutoff
+     */
+    private List<String> settledOrphans(String vaultDirectory, List<String> orphaned, long orphanCutoff) {
+        List<String> settled = new ArrayList<>();
+        for (String blobName : orphaned) {
+            File blob = BlobLayout.locate(vaultDirectory, blobName);
+            if (blob.exists() && blob.lastModified() <= orphanCutoff) {
+                settled.add(blobName);
+            }
+        }
+        return settled;
+    }
+    
+    /**
+     * Move orphaned blobs out of the vault
+     */
+    private List<String> quarantine(String vaultDirectory, List<String> orphaned) {
+        Path quarantine = Paths.get(new File(vaultDirectory).getParent(), QUARANTINE_DIRECTORY);
+        List<String> moved = new ArrayList<>();
+        
+        for (String blobName : orphaned) {
+            File blob = BlobLayout.locate(vaultDirectory, blobName);
+            
+            try {
+                Files.createDirectories(quarantine);
+                Files.move(blob.toPath(), quarantine.resolve(blobName), StandardCopyOption.REPLACE_EXISTING);
+                moved.add(blobName);
+            } catch (IOException e) {
+                System.err.println("Could not quarantine orphaned blob " + blobName + ": " + e.getMessage());
+            }
+        }
+        
+        return moved;
+    }
+    
+    private void flagMissing(List<Long> dangling) {
+        if (dangling.isEmpty()) {
+            return;
+        }
+        
+        List<IntegrityCheck> checks = new ArrayList<>();
+        for (Long fileId : dangling) {
+            checks.add(new IntegrityCheck(fileId, IntegrityCheck.STATUS_MISSING, "Blob file not found"));
+        }
+        dbManager.saveIntegrityChecks(checks, Collections.emptyMap());
+    }
+    
+    private static class BlobReference {
+        private final String blobName;
+        private final long fileId;
+        private final boolean recent;
+        
+        BlobReference(String blobName, long fileId, boolean recent) {
+            this.blobName = blobName;
+            this.fileId = fileId;
+            this.recent = recent;
+        }
+    }
+    
+    /**
+     * Outcome of one reconciliation pass
+     */
+    public static class ReconcileReport {
+        private final int blobCount;
+        private final int rowCount;
+        private final List<String> orphanedBlobs;
+        private final List<Long> danglingFileIds;
+        
+        public ReconcileReport(int blobCount, int rowCount, List<String> orphanedBlobs, List<Long> danglingFileIds) {
+            this.blobCount = blobCount;
+            this.rowCount = rowCount;
+            this.orphanedBlobs = orphanedBlobs;
+            this.danglingFileIds = danglingFileIds;
+        }
+        
+        public int getBlobCount() { return blobCount; }
+        public int getRowCount() { return rowCount; }
+        public List<String> getOrphanedBlobs() { return orphanedBlobs; }
+        public List<Long> getDanglingFileIds() { return danglingFileIds; }
+        public boolean hasMismatches() { return !orphanedBlobs.isEmpty() || !danglingFileIds.isEmpty(); }
+    }
+}
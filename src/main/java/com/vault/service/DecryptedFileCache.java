@@ -0,0 +1,112 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.VaultFile;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session-scoped cache of decrypted copies of recently opened files.
+ *
+ * Entries are keyed by file id and blob version, so a re-encrypted blob
+ * never serves a stale copy. The cache is bounded by
+ * DECRYPTED_CACHE_MAX_BYTES; least recently opened copies are wiped first,
+ * and everything is wiped when the session ends.
+ */
+public class DecryptedFileCache {
+    
+    private final Map<String, CachedFile> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    
+    /**
+     * Get the cached copy of a file, or null if it is not cached
+     */
+    public synchronized File get(VaultFile vaultFile) {
+        String key = cacheKey(vaultFile);
+        CachedFile cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (!cached.file.exists()) {
+            // Wiped by the temp file manager or removed by the user
+            entries.remove(key);
+            wipe(cached);
+            return null;
+        }
+        TempFileManager.getInstance().touch(cached.file);
+        return cached.file;
+    }
+    
+    /**
+     * Add a freshly decrypted copy, evicting least recently used copies to stay under the size cap
+     */
+    public synchronized void put(VaultFile vaultFile, File decryptedFile) {
+        invalidate(vaultFile.getId());
+        
+        CachedFile cached = new CachedFile(decryptedFile);
+        entries.put(cacheKey(vaultFile), cached);
+        totalBytes += cached.size;
+        
+        Iterator<Map.Entry<String, CachedFile>> iterator = entries.entrySet().iterator();
+        while (totalBytes > SecurityConfig.DECRYPTED_CACHE_MAX_BYTES && entries.size() > 1) {
+            Map.Entry<String, CachedFile> eldest = iterator.next();
+            iterator.remove();
+            wipe(eldest.getValue());
+        }
+    }
+    
+    /**
+     * Drop every cached version of a file (after delete or re-encrypt)
+     */
+    public synchronized void invalidate(long fileId) {
+        String prefix = fileId + ":";
+        Iterator<Map.Entry<String, CachedFile>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedFile> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                iterator.remove();
+                wipe(entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Wipe every cached copy (on logout, lock or exit)
+     */
+    public synchronized void clear() {
+        List<CachedFile> cachedFiles = new ArrayList<>(entries.values());
+        entries.clear();
+        for (CachedFile cached : cachedFiles) {
+            wipe(cached);
+        }
+        totalBytes = 0;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private void wipe(CachedFile cached) {
+        totalBytes -= cached.size;
+        TempFileManager.getInstance().wipe(cached.file);
+    }
+    
+    private static String cacheKey(VaultFile vaultFile) {
+        return vaultFile.getId() + ":" + vaultFile.getBlobVersion();
+    }
+    
+    private static class CachedFile {
+        private final File file;
+        private final long size;
+        
+        CachedFile(File file) {
+            this.file = file;
+            this.size = file.length();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached view of the free space on the vault volume.
+ *
+ * The volume is sampled on a schedule instead of on every check, and space
+ * promised to in-flight imports is kept in a reservation ledger, so space
+ * checks are answered from memory and concurrent imports cannot together
+ * claim more space than the disk has.
+ */
+public class DiskSpaceMonitor {
+    
+    private final File volume;
+    private ScheduledExecutorService scheduler;
+    private volatile Sample sample;
+    private long reservedBytes;
+    
+    DiskSpaceMonitor(String directory) {
+        this.volume = new File(directory);
+    }
+    
+    /**
+     * Latest sample of the volume; the first call samples synchronously and
+     * starts the background sampler
+     */
+    public Sample getSample() {
+        ensureStarted();
+        return sample;
+    }
+    
+    /**
+     * Space that can still be promised to new files
+     */
+    public synchronized long getAvailableBytes() {
+        return Math.max(0, getSample().getUsableSpace() - reservedBytes);
+    }
+    
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+    
+    public boolean canFit(long bytes) {
+        return getAvailableBytes() >= bytes;
+    }
+    
+    /**
+     * Reserve space for a file about to be written; returns null if it does
+     * not fit next to the reservations already held
+     */
+    public synchronized Reservation reserve(long bytes) {
+        if (getAvailableBytes() < bytes) {
+            return null;
+        }
+        reservedBytes += bytes;
+        return new Reservation(bytes);
+    }
+    
+    /**
+     * Take bytes that were just written off the cached sample, so the next
+     * check sees them without waiting for the sampler
+     */
+    public synchronized void recordWritten(long bytes) {
+        Sample current = getSample();
+        sample = new Sample(Math.max(0, current.freeSpace - bytes), current.totalSpace,
+                Math.max(0, current.usableSpace - bytes));
+    }
+    
+    /**
+     * Sample again soon, e.g. after files were deleted
+     */
+    public void refreshAsync() {
+        if (scheduler != null) {
+            scheduler.execute(this::sampleNow);
+        }
+    }
+    
+    /**
+     * Stop the background sampler
+     */
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            sample = null;
+        }
+    }
+    
+    private synchronized void ensureStarted() {
+        if (scheduler != null) {
+            return;
+        }
+        
+        sampleNow();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "disk-space-monitor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sampleNow, SecurityConfig.DISK_SPACE_SAMPLE_INTERVAL,
+                SecurityConfig.DISK_SPACE_SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+    
+    private void sampleNow() {
+        // Outside the lock: these are filesystem calls
+        Sample fresh = new Sample(volume.getFreeSpace(), volume.getTotalSpace(), volume.getUsableSpace());
+        synchronized (this) {
+            sample = fresh;
+        }
+    }
+    
+    private synchronized void release(long bytes) {
+        reservedBytes = Math.max(0, reservedBytes - bytes);
+    }
+    
+    /**
+     * Space held for one in-flight import until it is closed
+     */
+    public class Reservation implements AutoCloseable {
+        private final long bytes;
+        private boolean released;
+        
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+        
+        public long getBytes() { return bytes; }
+        
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(bytes);
+            }
+        }
+    }
+    
+    /**
+     * One reading of the vault volume
+     */
+    public static class Sample {
+        private final long freeSpace;
+        private final long totalSpace;
+        private final long usableSpace;
+        
+        Sample(long freeSpace, long totalSpace, long usableSpace) {
+            this.freeSpace = freeSpace;
+            this.totalSpace = totalSpace;
+            this.usableSpace = usableSpace;
+        }
+        
+        public long getFreeSpace() { return freeSpace; }
+        public long getTotalSpace() { return totalSpace; }
+        public long getUsableSpace() { return usableSpace; }
+    }
+}
@@ -0,0 +1,206 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+/**
+ * Streaming scan of a folder tree for import.
+ *
+ * The tree is walked with Files.walkFileTree on a background thread, using
+ * the attributes the walk already read instead of extra stat calls. Files
+ * that pass the type and size filters are handed over through a bounded
+ * queue as they are found, so an import can start on the first files while
+ * the rest of a very large tree is still being scanned. Files an earlier
+ * run already imported can be left out with a skip filter.
+ */
+public class FolderScanner implements Iterator<File>, AutoCloseable {
+    
+    private static final File END = new File("");
+    private static final long OFFER_TIMEOUT_MS = 200;
+    
+    private final Path root;
+    private final BiPredicate<Path, BasicFileAttributes> alreadyImported;
+    private final BlockingQueue<File> queue = new ArrayBlockingQueue<>(SecurityConfig.SCAN_QUEUE_CAPACITY);
+    private final AtomicInteger discoveredCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    private final AtomicInteger alreadyImportedCount = new AtomicInteger();
+    private volatile boolean finished;
+    private volatile boolean cancelled;
+    private Thread scanThread;
+    private File next;
+    
+    public FolderScanner(File folder) {
+        this(folder, (file, attributes) -> false);
+    }
+    
+    public FolderScanner(File folder, BiPredicate<Path, BasicFileAttributes> alreadyImported) {
+        this.root = folder.toPath();
+        this.alreadyImported = alreadyImported;
+    }
+    
+    /**
+     * Start walking the tree in the background
+     */
+    public synchronized FolderScanner start() {
+        if (scanThread == null) {
+            scanThread = new Thread(this::scan, "folder-scanner");
+            scanThread.setDaemon(true);
+            scanThread.start();
+        }
+        return this;
+    }
+    
+    /**
+     * Files found so far that will be imported
+     */
+    public int getDiscoveredCount() {
+        return discoveredCount.get();
+    }
+    
+    /**
+     * Files left out by the type and size filters
+     */
+    public int getSkippedCount() {
+        return skippedCount.get();
+    }
+    
+    /**
+     * Files left out because the skip filter reported them as already imported
+     */
+    public int getAlreadyImportedCount() {
+        return alreadyImportedCount.get();
+    }
+    
+    /**
+     * Whether the whole tree has been walked, so the discovered count is final
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+    
+    /**
+     * Check a file against the import filters
+     */
+    public static boolean isImportable(Path file, BasicFileAttributes attributes) {
+        if (!attributes.isRegularFile() || attributes.size() > SecurityConfig.MAX_FILE_SIZE) {
+            return false;
+        }
+        
+        String name = file.getFileName().toString();
+        if (SecurityConfig.IMPORT_EXCLUDED_NAMES.contains(name)) {
+            return false;
+        }
+        int dot = name.lastIndexOf('.');
+        return dot < 0 || !SecurityConfig.IMPORT_EXCLUDED_EXTENSIONS.contains(
+                name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+    
+    /**
+     * Blocks until the scanner has found another file or walked the whole
+     * tree; returns false if the calling thread is interrupted
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return next != END;
+    }
+    
+    @Override
+    public File next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        File file = next;
+        next = null;
+        return file;
+    }
+    
+    /**
+     * Stop the walk; files already handed out are unaffected
+     */
+    @Override
+    public void close() {
+        cancelled = true;
+        queue.clear(); // wakes the scan thread if it is blocked on a full queue
+    }
+    
+    private void scan() {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return cancelled ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!isImportable(file, attrs)) {
+                        skippedCount.incrementAndGet();
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (alreadyImported.test(file, attrs)) {
+                        alreadyImportedCount.incrementAndGet();
+                        return FileVisitResult.CONTINUE;
+                    }
+                    discoveredCount.incrementAndGet();
+                    return offer(file.toFile()) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                }
+                
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // Unreadable entries are skipped rather than ending the scan
+                    skippedCount.incrementAndGet();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Folder scan failed: " + e.getMessage());
+        } finally {
+            finished = true;
+            if (cancelled) {
+                queue.clear();
+                queue.offer(END);
+            } else {
+                offer(END);
+            }
+        }
+    }
+    
+    /**
+     * Hand a file to the consumer, waiting while the queue is full
+     */
+    private boolean offer(File file) {
+        try {
+            while (!cancelled) {
+                if (queue.offer(file, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.ImportEntry;
+import com.vault.model.VaultFile;
+import com.vault.util.DatabaseManager;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persisted record of what a folder import has already stored.
+ *
+ * Each source folder has one import session in the database. Every file the
+ * session imports is recorded with its size and modification time, so a
+ * cancelled or crashed import can be run again and skip the files that are
+ * unchanged since they were stored. Results are written in batches; a crash
+ * can lose at most the last unwritten batch, which is then imported again.
+ * The size and modification time recorded are the ones the folder scan saw
+ * before the file was read, so a file changed during its import no longer
+ * matches and is imported again.
+ */
+public class ImportManifest implements AutoCloseable {
+    
+    private final DatabaseManager dbManager;
+    private final Path root;
+    private final long sessionId;
+    private final Map<String, ImportEntry> imported;
+    private final List<ImportEntry> unsaved = new ArrayList<>();
+    private final Map<String, long[]> scanned = new ConcurrentHashMap<>(); // {size, mtime} of files handed to the import
+    
+    private ImportManifest(DatabaseManager dbManager, Path root, long sessionId, Map<String, ImportEntry> imported) {
+        this.dbManager = dbManager;
+        this.root = root;
+        this.sessionId = sessionId;
+        this.imported = imported;
+    }
+    
+    /**
+     * Open the manifest for a source folder, resuming an earlier session if there is one
+     */
+    public static ImportManifest open(File folder) {
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        Path root = folder.toPath().toAbsolutePath().normalize();
+        long sessionId = dbManager.openImportSession(root.toString());
+        return new ImportManifest(dbManager, root, sessionId, dbManager.getImportedEntries(sessionId));
+    }
+    
+    /**
+     * Number of files earlier runs of this session imported
+     */
+    public int getImportedCount() {
+        return imported.size();
+    }
+    
+    /**
+     * Whether a file was imported by an earlier run and is unchanged since;
+     * answered from memory so the folder scan can call it for every file.
+     * The attributes of files about to be imported are kept for record().
+     */
+    public boolean isImported(Path file, BasicFileAttributes attributes) {
+        String key = key(file);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        
+        ImportEntry entry = imported.get(key);
+        if (entry != null && entry.matches(size, modified)) {
+            return true;
+        }
+        scanned.put(key, new long[] {size, modified});
+        return false;
+    }
+    
+    /**
+     * Record the result of importing one file
+     */
+    public synchronized void record(File file, VaultFile vaultFile, Exception error) {
+        String key = key(file.toPath());
+        long[] stat = scanned.remove(key);
+        if (stat == null) {
+            stat = new long[] {file.length(), file.lastModified()}; // not from the scan
+        }
+        unsaved.add(new ImportEntry(sessionId, key, stat[0], stat[1],
+            error == null ? ImportEntry.STATUS_IMPORTED : ImportEntry.STATUS_FAILED,
+            vaultFile != null ? vaultFile.getId() : null));
+        if (unsaved.size() >= SecurityConfig.IMPORT_GROUP_MAX_FILES) {
+            flush();
+        }
+    }
+    
+    /**
+     * Write the recorded results that are not in the database yet
+     */
+    public synchronized void flush() {
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        dbManager.saveImportEntries(new ArrayList<>(unsaved));
+        unsaved.clear();
+    }
+    
+    /**
+     * Flush and mark the session completed, or cancelled so the next run resumes it
+     */
+    public void finish(boolean completed) {
+        flush();
+        dbManager.finishImportSession(sessionId,
+            completed ? DatabaseManager.IMPORT_COMPLETED : DatabaseManager.IMPORT_CANCELLED);
+    }
+    
+    @Override
+    public void close() {
+        flush();
+    }
+    
+    private String key(Path file) {
+        return root.relativize(file.toAbsolutePath().normalize()).toString();
+    }
+}
@@ -0,0 +1,234 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.IntegrityCheck;
+import com.vault.model.VaultFile;
+import com.vault.util.DatabaseManager;
+import com.vault.util.IoThrottle;
+import com.vault.util.SecurityUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Background verification of stored blobs against their recorded checksums.
+ *
+ * Every blob gets a CRC32C of its ciphertext when it is written; the scrubber
+ * re-reads blobs in parallel (throttled so it does not starve the UI of disk
+ * bandwidth), compares size and checksum without decrypting, and keeps the
+ * latest result per file in the integrity_checks table.
+ */
+public class IntegrityScrubber {
+    
+    private static final int BUFFER_SIZE = 256 * 1024;
+    
+    private final DatabaseManager dbManager;
+    private final PackStore packStore;
+    private final Function<VaultFile, File> blobResolver;
+    private final Object scrubLock = new Object();
+    
+    IntegrityScrubber(DatabaseManager dbManager, PackStore packStore, Function<VaultFile, File> blobResolver) {
+        this.dbManager = dbManager;
+        this.packStore = packStore;
+        this.blobResolver = blobResolver;
+    }
+    
+    /**
+     * Verify every file not checked within the scrub interval; only one scrub
+     * runs at a time. Due files are read and verified one page of
+     * SCRUB_BATCH_SIZE at a time, and each page's results are saved before
+     * the next is loaded, so saved files drop out of the due set.
+     */
+    public ScrubReport scrub() {
+        synchronized (scrubLock) {
+            long checkedBefore = System.currentTimeMillis() - SecurityConfig.SCRUB_INTERVAL;
+            List<VaultFile> due = dbManager.getFilesDueForIntegrityCheck(checkedBefore, SecurityConfig.SCRUB_BATCH_SIZE);
+            if (due.isEmpty()) {
+                return new ScrubReport(0, Collections.emptyList());
+            }
+            
+            int threads = Math.min(Runtime.getRuntime().availableProcessors(), SecurityConfig.SCRUB_MAX_PARALLELISM);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+                Thread thread = new Thread(r, "integrity-scrub");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            IoThrottle throttle = new IoThrottle(SecurityConfig.SCRUB_MAX_BYTES_PER_SECOND);
+            
+            try {
+                int checked = 0;
+                List<VaultFile> failed = new ArrayList<>();
+                while (!due.isEmpty()) {
+                    List<Future<Result>> futures = new ArrayList<>(due.size());
+                    for (VaultFile file : due) {
+                        futures.add(executor.submit(() -> verifyCurrent(file, throttle)));
+                    }
+                    
+                    List<IntegrityCheck> batch = new ArrayList<>();
+                    Map<Long, Long> baselines = new HashMap<>();
+                    for (int i = 0; i < futures.size(); i++) {
+                        Result result = futures.get(i).get();
+                        if (result == null) {
+                            continue; // deleted during the pass
+                        }
+                        batch.add(result.check);
+                        if (result.baselineChecksum != null) {
+                            baselines.put(result.check.getFileId(), result.baselineChecksum);
+                        }
+                        if (!result.check.isOk()) {
+                            failed.add(due.get(i));
+                            System.err.println("Integrity check failed for " + due.get(i).getOriginalName()
+                                + ": " + result.check.getDetail());
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        dbManager.saveIntegrityChecks(batch, baselines);
+                    }
+                    checked += due.size();
+                    
+                    due = dbManager.getFilesDueForIntegrityCheck(checkedBefore, SecurityConfig.SCRUB_BATCH_SIZE);
+                }
+                
+                return new ScrubReport(checked, failed);
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Integrity scrub interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Integrity scrub failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+    
+    /**
+     * Verify a file, re-reading its row before reporting a failure: the pass
+     * works from rows loaded when it started, and a blob rewritten since then
+     * no longer matches the old checksum; returns null if the file was deleted
+     */
+    private Result verifyCurrent(VaultFile file, IoThrottle throttle) {
+        Result result = verify(file, throttle);
+        if (result.check.isOk()) {
+            return result;
+        }
+        
+        VaultFile current = dbManager.getVaultFile(file.getId());
+        if (current == null) {
+            return null;
+        }
+        if (current.getBlobVersion() != file.getBlobVersion()
+                || !Objects.equals(current.getChecksum(), file.getChecksum())
+                || !Objects.equals(current.getEncryptedPath(), file.getEncryptedPath())
+                || current.getStoredSize() != file.getStoredSize()) {
+            return verify(current, throttle);
+        }
+        return result;
+    }
+    
+    private Result verify(VaultFile file, IoThrottle throttle) {
+        long length;
+        long checksum;
+        try {
+            if (PackStore.isPackPath(file.getEncryptedPath())) {
+                byte[] data = packStore.read(PackStore.recordId(file.getEncryptedPath()));
+                throttle.acquire(data.length);
+                length = data.length;
+                checksum = SecurityUtil.checksum(data);
+            } else {
+                File blob = blobResolver.apply(file);
+                if (!blob.exists()) {
+                    return failure(file, IntegrityCheck.STATUS_MISSING, "Blob file not found");
+                }
+                length = blob.length();
+                checksum = checksumOf(blob, throttle);
+            }
+        } catch (NoSuchFileException e) {
+            return failure(file, IntegrityCheck.STATUS_MISSING, "Blob file not found");
+        } catch (IOException e) {
+            return failure(file, IntegrityCheck.STATUS_UNREADABLE, "Unreadable: " + e.getMessage());
+        }
+        
+        if (length != file.getStoredSize()) {
+            return failure(file, IntegrityCheck.STATUS_CORRUPT,
+                "Stored size " + length + " bytes, expected " + file.getStoredSize());
+        }
+        
+        // Files stored before checksums existed: take today's bytes as the baseline
+        if (file.getChecksum() == null) {
+            if (length < 32 || length % 16 != 0) {
+                return failure(file, IntegrityCheck.STATUS_CORRUPT, "Not a whole number of cipher blocks");
+            }
+            return new Result(new IntegrityCheck(file.getId(), IntegrityCheck.STATUS_OK, "Checksum recorded"), checksum);
+        }
+        
+        if (checksum != file.getChecksum()) {
+            return failure(file, IntegrityCheck.STATUS_CORRUPT, "Checksum mismatch");
+        }
+        return new Result(new IntegrityCheck(file.getId(), IntegrityCheck.STATUS_OK, null), null);
+    }
+    
+    private long checksumOf(File blob, IoThrottle throttle) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        
+        try (FileChannel channel = FileChannel.open(blob.toPath(), StandardOpenOption.READ)) {
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+                throttle.acquire(read);
+            }
+        }
+        return crc.getValue();
+    }
+    
+    private Result failure(VaultFile file, String status, String detail) {
+        return new Result(new IntegrityCheck(file.getId(), status, detail), null);
+    }
+    
+    private static class Result {
+        private final IntegrityCheck check;
+        private final Long baselineChecksum;
+        
+        Result(IntegrityCheck check, Long baselineChecksum) {
+            this.check = check;
+            this.baselineChecksum = baselineChecksum;
+        }
+    }
+    
+    /**
+     * Outcome of one scrub pass
+     */
+    public static class ScrubReport {
+        private final int checkedCount;
+        private final List<VaultFile> failedFiles;
+        
+        public ScrubReport(int checkedCount, List<VaultFile> failedFiles) {
+            this.checkedCount = checkedCount;
+            this.failedFiles = failedFiles;
+        }
+        
+        public int getCheckedCount() { return checkedCount; }
+        public List<VaultFile> getFailedFiles() { return failedFiles; }
+        public boolean hasFailures() { return !failedFiles.isEmpty(); }
+    }
+}
@@ -0,0 +1,252 @@
+package com.vault.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vault.config.SecurityConfig;
+import com.vault.model.VaultFile;
+import com.vault.util.RangeDecryptor;
+import com.vault.util.SecurityUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback-only HTTP server that streams decrypted media to local players.
+ *
+ * Each stream URL carries an unguessable token bound to a single file.
+ * Range requests are answered by decrypting just the CBC blocks that cover
+ * the range, so players can start and seek immediately and no plaintext
+ * is ever written to disk.
+ */
+public class MediaStreamServer {
+    
+    private static final String CONTEXT_PATH = "/stream/";
+    
+    private static MediaStreamServer instance;
+    private final Map<String, StreamToken> tokens = new ConcurrentHashMap<>();
+    private HttpServer server;
+    
+    private MediaStreamServer() {}
+    
+    public static synchronized MediaStreamServer getInstance() {
+        if (instance == null) {
+            instance = new MediaStreamServer();
+        }
+        return instance;
+    }
+    
+    /**
+     * Issue a token for a file and return the URL a player can open
+     */
+    public synchronized String createStreamUrl(VaultFile vaultFile) {
+        ensureStarted();
+        
+        String token = SecurityUtil.generateSecureFileName();
+        tokens.put(token, new StreamToken(vaultFile));
+        
+        String name = URLEncoder.encode(vaultFile.getOriginalName(), StandardCharsets.UTF_8).replace("+", "%20");
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CONTEXT_PATH + token + "/" + name;
+    }
+    
+    /**
+     * Invalidate every issued token and stop the server (on logout or exit)
+     */
+    public synchronized void revokeAll() {
+        tokens.clear();
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+    
+    private void ensureStarted() {
+        if (server != null) {
+            return;
+        }
+        
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext(CONTEXT_PATH, this::handle);
+            server.setExecutor(Executors.newFixedThreadPool(SecurityConfig.STREAM_SERVER_THREADS, r -> {
+                Thread thread = new Thread(r, "media-stream");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            System.out.println("Media stream server listening on port " + server.getAddress().getPort());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start media stream server: " + e.getMessage(), e);
+        }
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+                sendStatus(exchange, 403);
+                return;
+            }
+            
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                sendStatus(exchange, 405);
+                return;
+            }
+            
+            StreamToken token = lookupToken(exchange.getRequestURI().getPath());
+            if (token == null) {
+                sendStatus(exchange, 404);
+                return;
+            }
+            
+            serveRange(exchange, token, "HEAD".equals(method));
+        } catch (Exception e) {
+            // Players routinely drop connections while seeking
+            SecurityConfig.secureLog(java.util.logging.Level.FINE, "Stream request ended: {0}", e.getClass().getSimpleName());
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private StreamToken lookupToken(String path) {
+        String remainder = path.substring(CONTEXT_PATH.length());
+        int slash = remainder.indexOf('/');
+        String tokenValue = slash >= 0 ? remainder.substring(0, slash) : remainder;
+        
+        StreamToken token = tokens.get(tokenValue);
+        if (token == null) {
+            return null;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (now - token.lastAccess > SecurityConfig.STREAM_TOKEN_IDLE_TIMEOUT) {
+            tokens.remove(tokenValue);
+            return null;
+        }
+        token.lastAccess = now;
+        return token;
+    }
+    
+    private void serveRange(HttpExchange exchange, StreamToken token, boolean headOnly) throws IOException {
+        try (RangeDecryptor decryptor = VaultService.getInstance().openRangeDecryptor(token.vaultFile)) {
+            long length = decryptor.plaintextLength();
+            
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            exchange.getResponseHeaders().set("Content-Type", contentType(token.vaultFile.getOriginalName()));
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            
+            long start = 0;
+            long end = length - 1;
+            int status = 200;
+            
+            String rangeHeader = exchange.getRequestHeaders().getFirst("Range");
+            if (rangeHeader != null) {
+                long[] range = parseRange(rangeHeader, length);
+                if (range == null) {
+                    exchange.getResponseHeaders().set("Content-Range", "bytes */" + length);
+                    sendStatus(exchange, 416);
+                    return;
+                }
+                start = range[0];
+                end = range[1];
+                status = 206;
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+            
+            long contentLength = end - start + 1;
+            if (headOnly) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(contentLength));
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            
+            exchange.sendResponseHeaders(status, contentLength == 0 ? -1 : contentLength);
+            if (contentLength > 0) {
+                try (OutputStream body = exchange.getResponseBody()) {
+                    decryptor.copyRange(start, end, body);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Parse a single "bytes=" range; only the first range of a multi-range request is served
+     */
+    private long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || length == 0) {
+            return null;
+        }
+        
+        String spec = header.substring("bytes=".length()).split(",")[0].trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private String contentType(String fileName) {
+        String type = URLConnection.guessContentTypeFromName(fileName);
+        if (type != null) {
+            return type;
+        }
+        
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".mp4")) return "video/mp4";
+        if (lower.endsWith(".mkv")) return "video/x-matroska";
+        if (lower.endsWith(".mov")) return "video/quicktime";
+        if (lower.endsWith(".avi")) return "video/x-msvideo";
+        if (lower.endsWith(".wmv")) return "video/x-ms-wmv";
+        if (lower.endsWith(".mp3")) return "audio/mpeg";
+        if (lower.endsWith(".flac")) return "audio/flac";
+        if (lower.endsWith(".aac")) return "audio/aac";
+        return "application/octet-stream";
+    }
+    
+    private void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+    
+    private static class StreamToken {
+        private final VaultFile vaultFile;
+        private volatile long lastAccess;
+        
+        StreamToken(VaultFile vaultFile) {
+            this.vaultFile = vaultFile;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.PackRecord;
+import com.vault.util.DatabaseManager;
+import com.vault.util.DecryptPipeline;
+import com.vault.util.RangeDecryptor;
+import com.vault.util.SecureErrorHandler;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only pack storage for small encrypted blobs.
+ *
+ * Records are appended to segment files with a small header and indexed in
+ * the pack_records table. Deleting a record only marks it in the index;
+ * segments that are mostly dead space are compacted in the background.
+ * Appended bytes nothing indexes (e.g. from a store that crashed before its
+ * commit) count as dead space too.
+ */
+public class PackStore {
+    
+    public static final String PACK_PATH_PREFIX = "pack:";
+    
+    private static final int RECORD_MAGIC = 0x56504B31; // "VPK1"
+    private static final int HEADER_LENGTH = 8;
+    private static final double COMPACTION_WASTE_RATIO = 0.5;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_EXTENSION = ".pack";
+    
+    private final Path packDirectory;
+    private final DatabaseManager dbManager;
+    private final ExecutorService compactionExecutor;
+    private final AtomicBoolean compactionQueued = new AtomicBoolean(false);
+    private final Map<String, Integer> unindexedAppends = new HashMap<>(); // segment -> appends not yet committed
+    private Path activeSegment;
+    
+    public PackStore(String packDirectory) {
+        this.packDirectory = Paths.get(packDirectory);
+        this.dbManager = DatabaseManager.getInstance();
+        this.compactionExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "pack-compactor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        
+        try {
+            Files.createDirectories(this.packDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create pack directory", e);
+        }
+    }
+    
+    /**
+     * Check whether an encrypted path refers to a pack record
+     */
+    public static boolean isPackPath(String encryptedPath) {
+        return encryptedPath != null && encryptedPath.startsWith(PACK_PATH_PREFIX);
+    }
+    
+    /**
+     * Build the encrypted path stored in vault_files for a pack record
+     */
+    public static String toPath(long recordId) {
+        return PACK_PATH_PREFIX + recordId;
+    }
+    
+    /**
+     * Extract the pack record id from an encrypted path
+     */
+    public static long recordId(String encryptedPath) {
+        return Long.parseLong(encryptedPath.substring(PACK_PATH_PREFIX.length()));
+    }
+    
+    /**
+     * Append an encrypted blob to the active segment without syncing or
+     * indexing it. The caller syncs its appends with force(), commits their
+     * pack_records rows along with the files that use them, then calls
+     * release(); until then compaction leaves the segment alone.
+     */
+    public synchronized PackRecord append(byte[] data) throws IOException {
+        PackRecord record = writeRecord(data);
+        unindexedAppends.merge(record.getSegment(), 1, Integer::sum);
+        return record;
+    }
+    
+    /**
+     * Sync the segments a group of appends went to, once per segment
+     */
+    public void force(List<PackRecord> records) throws IOException {
+        Set<String> segments = new LinkedHashSet<>();
+        for (PackRecord record : records) {
+            segments.add(record.getSegment());
+        }
+        for (String segment : segments) {
+            try (FileChannel channel = FileChannel.open(packDirectory.resolve(segment), StandardOpenOption.WRITE)) {
+                channel.force(false);
+            }
+        }
+    }
+    
+    /**
+     * Hand the segments of committed or abandoned appends back to compaction
+     */
+    public synchronized void release(List<PackRecord> records) {
+        for (PackRecord record : records) {
+            unindexedAppends.computeIfPresent(record.getSegment(), (segment, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+    
+    /**
+     * Read an encrypted blob back from its segment
+     */
+    public byte[] read(long recordId) throws IOException {
+        PackRecord record = getRecord(recordId);
+        try {
+            return readRecord(record);
+        } catch (NoSuchFileException e) {
+            // The segment was compacted between the index lookup and the read
+            return readRecord(getRecord(recordId));
+        }
+    }
+    
+    /**
+     * Decrypt a record straight from its segment through the given pipeline
+     */
+    public long decryptTo(long recordId, DecryptPipeline pipeline, SecretKey key, WritableByteChannel out) throws IOException {
+        PackRecord record = getRecord(recordId);
+        try {
+            return decryptRecord(record, pipeline, key, out);
+        } catch (NoSuchFileException e) {
+            // The segment was compacted between the index lookup and the read
+            return decryptRecord(getRecord(recordId), pipeline, key, out);
+        }
+    }
+    
+    /**
+     * Open a random-access decryptor over a record inside its segment
+     */
+    public RangeDecryptor openRange(long recordId, SecretKey key) throws IOException {
+        PackRecord record = getRecord(recordId);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(packDirectory.resolve(record.getSegment()), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // The segment was compacted between the index lookup and the open
+            record = getRecord(recordId);
+            channel = FileChannel.open(packDirectory.resolve(record.getSegment()), StandardOpenOption.READ);
+        }
+        return new RangeDecryptor(channel, record.getOffset(), record.getLength(), key);
+    }
+    
+    /**
+     * Check whether a pack record is still live
+     */
+    public boolean exists(long recordId) {
+        PackRecord record = dbManager.getPackRecord(recordId);
+        return record != null && Files.exists(packDirectory.resolve(record.getSegment()));
+    }
+    
+    /**
+     * Delete a record from the index and compact in the background if worthwhile
+     */
+    public boolean delete(long recordId) {
+        boolean deleted = dbManager.markPackRecordDeleted(recordId);
+        if (deleted) {
+            scheduleCompaction();
+        }
+        return deleted;
+    }
+    
+    /**
+     * Rewrite every sealed segment whose dead space exceeds the waste ratio.
+     * Live records are copied verbatim into the active segment, so no
+     * decryption is needed.
+     */
+    public synchronized int compact() throws IOException {
+        int compacted = 0;
+        ensureActiveSegment();
+        
+        for (Path segment : listSegments()) {
+            String segmentName = segment.getFileName().toString();
+            if (segment.equals(activeSegment) || unindexedAppends.containsKey(segmentName)) {
+                continue;
+            }
+            
+            long fileSize = Files.size(segment);
+            long[] usage = dbManager.getPackSegmentUsage(segmentName);
+            long liveBytes = usage[0] + usage[1] * HEADER_LENGTH;
+            
+            if (fileSize == 0 || (double) (fileSize - liveBytes) / fileSize < COMPACTION_WASTE_RATIO) {
+                continue;
+            }
+            
+            List<PackRecord> relocated = new ArrayList<>();
+            for (PackRecord record : dbManager.getLivePackRecords(segmentName)) {
+                PackRecord newLocation = writeRecord(readRecord(record));
+                newLocation.setId(record.getId());
+                relocated.add(newLocation);
+            }
+            force(relocated);
+            
+            dbManager.relocatePackSegment(segmentName, relocated);
+            Files.deleteIfExists(segment);
+            compacted++;
+        }
+        
+        return compacted;
+    }
+    
+    /**
+     * Queue a background compaction pass; callers that tombstone records in
+     * bulk call this once afterwards
+     */
+    void scheduleCompaction() {
+        if (compactionQueued.compareAndSet(false, true)) {
+            compactionExecutor.submit(() -> {
+                compactionQueued.set(false);
+                try {
+                    int compacted = compact();
+                    if (compacted > 0) {
+                        System.out.println("Compacted " + compacted + " pack segment(s).");
+                    }
+                } catch (Exception e) {
+                    SecureErrorHandler.handleFileError(e);
+                }
+            });
+        }
+    }
+    
+    private PackRecord getRecord(long recordId) throws IOException {
+        PackRecord record = dbManager.getPackRecord(recordId);
+        if (record == null) {
+            throw new IOException("Pack record not found: " + recordId);
+        }
+        return record;
+    }
+    
+    private byte[] readRecord(PackRecord record) throws IOException {
+        Path segment = packDirectory.resolve(record.getSegment());
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(record.getLength());
+            long position = record.getOffset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of pack segment: " + record);
+                }
+                position += read;
+            }
+            return buffer.array();
+        }
+    }
+    
+    private long decryptRecord(PackRecord record, DecryptPipeline pipeline, SecretKey key, WritableByteChannel out) throws IOException {
+        Path segment = packDirectory.resolve(record.getSegment());
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return pipeline.decrypt(channel, record.getOffset(), record.getLength(), key, out);
+        }
+    }
+    
+    private PackRecord writeRecord(byte[] data) throws IOException {
+        Path segment = segmentFor(data.length);
+        
+        try (FileChannel channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long headerOffset = channel.size();
+            
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + data.length);
+            buffer.putInt(RECORD_MAGIC);
+            buffer.putInt(data.length);
+            buffer.put(data);
+            buffer.flip();
+            
+            long position = headerOffset;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            
+            return new PackRecord(segment.getFileName().toString(), headerOffset + HEADER_LENGTH, data.length);
+        }
+    }
+    
+    /**
+     * Get the segment to append to, rolling over to a new one when full
+     */
+    private Path segmentFor(int recordLength) throws IOException {
+        ensureActiveSegment();
+        
+        long currentSize = Files.exists(activeSegment) ? Files.size(activeSegment) : 0;
+        if (currentSize > 0 && currentSize + HEADER_LENGTH + recordLength > SecurityConfig.PACK_SEGMENT_SIZE) {
+            activeSegment = packDirectory.resolve(segmentName(segmentNumber(activeSegment) + 1));
+        }
+        
+        return activeSegment;
+    }
+    
+    private void ensureActiveSegment() throws IOException {
+        if (activeSegment == null) {
+            List<Path> segments = listSegments();
+            activeSegment = segments.isEmpty()
+                    ? packDirectory.resolve(segmentName(1))
+                    : segments.get(segments.size() - 1);
+        }
+    }
+    
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> paths = Files.list(packDirectory)) {
+            return paths.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .filter(p -> p.getFileName().toString().endsWith(SEGMENT_EXTENSION))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+    
+    private static String segmentName(int number) {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_EXTENSION);
+    }
+    
+    private static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+    }
+}
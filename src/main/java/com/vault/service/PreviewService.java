@@ -0,0 +1,204 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.Preview;
+import com.vault.util.DatabaseManager;
+import com.vault.util.SecurityUtil;
+
+import javax.crypto.SecretKey;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds small previews of vault files at ingest time and keeps them
+ * encrypted in the previews table, so the UI can show what a file is
+ * without decrypting the original.
+ *
+ * The cache is bounded by PREVIEW_CACHE_MAX_BYTES; the least recently
+ * viewed previews are evicted first. Imports queue preview generation on a
+ * background thread so decoding images does not slow the store itself.
+ */
+public class PreviewService {
+    
+    private static final List<String> IMAGE_TYPES = Arrays.asList("jpg", "jpeg", "png", "gif", "bmp");
+    private static final List<String> TEXT_TYPES = Arrays.asList("txt", "csv", "md", "log", "json", "xml");
+    private static final int TEXT_SAMPLE_BYTES = 4096;
+    
+    private final DatabaseManager dbManager;
+    private final ExecutorService previewExecutor;
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private long cacheBytes = -1; // Lazily loaded, reset after eviction
+    
+    public PreviewService() {
+        this.dbManager = DatabaseManager.getInstance();
+        this.previewExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "preview-builder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    /**
+     * Check whether a preview can be generated for a file type
+     */
+    public static boolean isPreviewable(String fileType) {
+        String type = fileType == null ? "" : fileType.toLowerCase();
+        return IMAGE_TYPES.contains(type) || TEXT_TYPES.contains(type);
+    }
+    
+    /**
+     * Check whether a file of this type and size gets a preview, i.e. whether
+     * its contents are worth keeping around until createPreview
+     */
+    public static boolean isPreviewable(String fileType, long fileSize) {
+        return isPreviewable(fileType) && fileSize <= SecurityConfig.PREVIEW_MAX_SOURCE_SIZE;
+    }
+    
+    /**
+     * Generate, encrypt and store the preview of a newly stored file.
+     * Preview failures never fail the ingest.
+     */
+    public void createPreview(long fileId, String fileType, byte[] fileData, SecretKey key) {
+        if (!isPreviewable(fileType, fileData.length)) {
+            return;
+        }
+        
+        try {
+            String type = fileType.toLowerCase();
+            Preview preview = IMAGE_TYPES.contains(type)
+                    ? new Preview(fileId, Preview.KIND_IMAGE, createThumbnail(fileData))
+                    : new Preview(fileId, Preview.KIND_TEXT, createSnippet(fileData));
+            
+            if (preview.getData() == null) {
+                return;
+            }
+            
+            preview.setData(SecurityUtil.encrypt(preview.getData(), key));
+            dbManager.savePreview(preview);
+            enforceCacheLimit(preview.getData().length);
+            
+        } catch (Exception e) {
+            System.err.println("Could not create preview for file " + fileId + ": " + e.getClass().getSimpleName());
+        }
+    }
+    
+    /**
+     * Build the preview of a newly stored file on the preview thread. Once
+     * PREVIEW_QUEUE_MAX_BYTES of sources are waiting, the caller builds it
+     * itself, which keeps the queued file contents bounded.
+     */
+    public void queuePreview(long fileId, String fileType, byte[] fileData, SecretKey key) {
+        if (!isPreviewable(fileType, fileData.length)) {
+            return;
+        }
+        if (queuedBytes.addAndGet(fileData.length) > SecurityConfig.PREVIEW_QUEUE_MAX_BYTES) {
+            queuedBytes.addAndGet(-fileData.length);
+            createPreview(fileId, fileType, fileData, key);
+            return;
+        }
+        
+        previewExecutor.execute(() -> {
+            try {
+                createPreview(fileId, fileType, fileData, key);
+            } finally {
+                queuedBytes.addAndGet(-fileData.length);
+            }
+        });
+    }
+    
+    /**
+     * Load and decrypt the preview of a file, or null if none is cached
+     */
+    public Preview getPreview(long fileId, SecretKey key) {
+        Preview preview = dbManager.getPreview(fileId);
+        if (preview == null) {
+            return null;
+        }
+        
+        preview.setData(SecurityUtil.decrypt(preview.getData(), key));
+        return preview;
+    }
+    
+    /**
+     * Re-encrypt every cached preview with a new key; previews that cannot be
+     * converted are dropped rather than left unreadable
+     */
+    public void reEncryptPreviews(SecretKey oldKey, SecretKey newKey) {
+        try {
+            for (Preview preview : dbManager.getAllPreviews()) {
+                byte[] plain = SecurityUtil.decrypt(preview.getData(), oldKey);
+                preview.setData(SecurityUtil.encrypt(plain, newKey));
+                dbManager.savePreview(preview);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not re-encrypt previews, clearing preview cache");
+            dbManager.clearPreviews();
+        }
+        cacheBytes = -1;
+    }
+    
+    private synchronized void enforceCacheLimit(long addedBytes) {
+        if (cacheBytes < 0) {
+            cacheBytes = dbManager.getPreviewCacheSize();
+        } else {
+            cacheBytes += addedBytes;
+        }
+        
+        if (cacheBytes > SecurityConfig.PREVIEW_CACHE_MAX_BYTES) {
+            int evicted = dbManager.evictPreviews(SecurityConfig.PREVIEW_CACHE_MAX_BYTES);
+            System.out.println("Evicted " + evicted + " preview(s) from cache");
+            cacheBytes = -1;
+        }
+    }
+    
+    /**
+     * Scale an image down to fit PREVIEW_MAX_DIMENSION and encode it as JPEG
+     */
+    private byte[] createThumbnail(byte[] imageData) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(imageData));
+        if (source == null) {
+            return null; // Unsupported or corrupt image
+        }
+        
+        double scale = Math.min(1.0, (double) SecurityConfig.PREVIEW_MAX_DIMENSION
+                / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = thumbnail.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setColor(new Color(60, 60, 60)); // Transparent areas blend with the dark theme
+        g2d.fillRect(0, 0, width, height);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "jpg", output);
+        return output.toByteArray();
+    }
+    
+    /**
+     * Take the first PREVIEW_TEXT_LENGTH characters of a text file
+     */
+    private byte[] createSnippet(byte[] textData) {
+        String text = new String(textData, 0, Math.min(textData.length, TEXT_SAMPLE_BYTES), StandardCharsets.UTF_8);
+        if (text.length() > SecurityConfig.PREVIEW_TEXT_LENGTH) {
+            text = text.substring(0, SecurityConfig.PREVIEW_TEXT_LENGTH);
+        }
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.vault.service;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Registry for optional services that should not slow down opening a window.
+ *
+ * A service is registered with a factory and only created on first use, or
+ * in the background once the window that needs it has been painted.
+ */
+public class ServiceRegistry {
+    
+    private static ServiceRegistry instance;
+    private final Map<Class<?>, Supplier<?>> factories = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Object> services = new ConcurrentHashMap<>();
+    private final ExecutorService deferredExecutor;
+    
+    private ServiceRegistry() {
+        this.deferredExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "deferred-services");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+    
+    public static synchronized ServiceRegistry getInstance() {
+        if (instance == null) {
+            instance = new ServiceRegistry();
+        }
+        return instance;
+    }
+    
+    /**
+     * Register the factory for a service; re-registering replaces a service
+     * that was started for an earlier window
+     */
+    public synchronized <T> void register(Class<T> type, Supplier<T> factory) {
+        factories.put(type, factory);
+        services.remove(type);
+    }
+    
+    /**
+     * Get a service, starting it on first use
+     */
+    public synchronized <T> T get(Class<T> type) {
+        Object service = services.get(type);
+        if (service == null) {
+            Supplier<?> factory = factories.get(type);
+            if (factory == null) {
+                throw new IllegalStateException("No service registered for " + type.getSimpleName());
+            }
+            service = factory.get();
+            services.put(type, service);
+        }
+        return type.cast(service);
+    }
+    
+    /**
+     * Get a service only if something has already started it
+     */
+    public <T> Optional<T> getIfStarted(Class<T> type) {
+        return Optional.ofNullable(services.get(type)).map(type::cast);
+    }
+    
+    /**
+     * Start services in the background once a window has been painted
+     */
+    public void startAfterFirstPaint(Window window, Class<?>... types) {
+        runAfterFirstPaint(window, () -> {
+            for (Class<?> type : types) {
+                try {
+                    get(type);
+                } catch (Exception e) {
+                    System.err.println("Failed to start " + type.getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Run a background task once a window has been painted
+     */
+    public void runAfterFirstPaint(Window window, Runnable task) {
+        // Queued behind the paint events the window posts when it opens
+        Runnable schedule = () -> SwingUtilities.invokeLater(() -> deferredExecutor.execute(task));
+        
+        if (window.isShowing()) {
+            schedule.run();
+            return;
+        }
+        
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                window.removeWindowListener(this);
+                schedule.run();
+            }
+        });
+    }
+}
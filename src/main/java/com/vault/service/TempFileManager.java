@@ -0,0 +1,227 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.util.SecurityUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lifecycle manager for decrypted temp files.
+ *
+ * Every plaintext copy handed to an external viewer is registered here and
+ * lives in a per-process session directory. A background task wipes copies
+ * once their TTL expires or, where the OS reports it, once the viewer has
+ * released them. Session directories left behind by crashed processes are
+ * wiped at the next startup.
+ */
+public class TempFileManager {
+    
+    private static final String TEMP_DIRECTORY_NAME = ".securevault_temp";
+    private static final String SESSION_PREFIX = "session-";
+    private static final boolean LOCKS_OPEN_FILES = System.getProperty("os.name", "").toLowerCase().contains("win");
+    
+    private static TempFileManager instance;
+    private final Path tempRoot;
+    private final Path sessionDirectory;
+    private final Map<Path, Long> registry = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    
+    private TempFileManager() {
+        this.tempRoot = Paths.get(System.getProperty("java.io.tmpdir"), TEMP_DIRECTORY_NAME);
+        this.sessionDirectory = tempRoot.resolve(SESSION_PREFIX + ProcessHandle.current().pid());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "temp-file-wiper");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        
+        scheduler.scheduleWithFixedDelay(this::wipeExpired, SecurityConfig.TEMP_WIPE_INTERVAL,
+                SecurityConfig.TEMP_WIPE_INTERVAL, TimeUnit.MILLISECONDS);
+        
+        // Best effort on normal JVM exit; crashes are handled by the next startup
+        Runtime.getRuntime().addShutdownHook(new Thread(this::wipeAll, "temp-file-shutdown"));
+    }
+    
+    public static synchronized TempFileManager getInstance() {
+        if (instance == null) {
+            instance = new TempFileManager();
+        }
+        return instance;
+    }
+    
+    /**
+     * Create a fresh directory for one decrypted copy inside this session's directory
+     */
+    public Path createTempDirectory() throws IOException {
+        Path directory = sessionDirectory.resolve("open-" + SecurityUtil.generateSecureFileName());
+        Files.createDirectories(directory);
+        return directory;
+    }
+    
+    /**
+     * Start tracking a decrypted file so it is wiped after the TTL
+     */
+    public void register(File file) {
+        registry.put(file.toPath(), System.currentTimeMillis());
+    }
+    
+    /**
+     * Reset the TTL of a file that was handed to a viewer again
+     */
+    public void touch(File file) {
+        registry.computeIfPresent(file.toPath(), (path, created) -> System.currentTimeMillis());
+    }
+    
+    /**
+     * Securely wipe a tracked file now, along with its per-copy directory
+     */
+    public void wipe(File file) {
+        Path path = file.toPath();
+        registry.remove(path);
+        SecurityUtil.secureDelete(file);
+        
+        Path parent = path.getParent();
+        if (parent != null && !parent.equals(sessionDirectory) && parent.startsWith(sessionDirectory)) {
+            parent.toFile().delete();
+        }
+    }
+    
+    /**
+     * Wipe every file registered in this session
+     */
+    public void wipeAll() {
+        for (Path path : new ArrayList<>(registry.keySet())) {
+            wipe(path.toFile());
+        }
+        deleteTree(sessionDirectory);
+    }
+    
+    /**
+     * Wipe temp files left by earlier processes that did not shut down
+     * cleanly. Runs on a background thread so it never delays startup.
+     */
+    public void cleanupOrphansAsync() {
+        Thread cleaner = new Thread(() -> {
+            try {
+                int wiped = cleanupOrphans();
+                if (wiped > 0) {
+                    System.out.println("Wiped " + wiped + " orphaned temp file(s) from a previous session.");
+                }
+            } catch (Exception e) {
+                System.err.println("Orphaned temp file cleanup failed: " + e.getMessage());
+            }
+        }, "temp-orphan-cleaner");
+        cleaner.setDaemon(true);
+        cleaner.setPriority(Thread.MIN_PRIORITY);
+        cleaner.start();
+    }
+    
+    private int cleanupOrphans() throws IOException {
+        if (!Files.isDirectory(tempRoot)) {
+            return 0;
+        }
+        
+        // Anything outside the session directory of a live process is an orphan
+        List<Path> orphanRoots;
+        try (Stream<Path> entries = Files.list(tempRoot)) {
+            orphanRoots = entries.filter(path -> !isLiveSession(path)).collect(Collectors.toList());
+        }
+        
+        List<Path> orphanFiles = new ArrayList<>();
+        for (Path root : orphanRoots) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.filter(Files::isRegularFile).forEach(orphanFiles::add);
+            }
+        }
+        
+        // Overwriting is I/O bound, so spread it across the common pool
+        orphanFiles.parallelStream().forEach(path -> SecurityUtil.secureDelete(path.toFile()));
+        
+        for (Path root : orphanRoots) {
+            deleteTree(root);
+        }
+        
+        return orphanFiles.size();
+    }
+    
+    private boolean isLiveSession(Path path) {
+        String name = path.getFileName().toString();
+        if (!Files.isDirectory(path) || !name.startsWith(SESSION_PREFIX)) {
+            return false;
+        }
+        
+        try {
+            long pid = Long.parseLong(name.substring(SESSION_PREFIX.length()));
+            return pid == ProcessHandle.current().pid() || ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    private void wipeExpired() {
+        long now = System.currentTimeMillis();
+        
+        for (Map.Entry<Path, Long> entry : registry.entrySet()) {
+            Path path = entry.getKey();
+            long age = now - entry.getValue();
+            
+            if (!Files.exists(path)) {
+                registry.remove(path);
+            } else if (age > SecurityConfig.TEMP_FILE_TTL) {
+                wipe(path.toFile());
+            } else if (LOCKS_OPEN_FILES && age > SecurityConfig.TEMP_RELEASE_GRACE && isReleased(path)) {
+                wipe(path.toFile());
+            }
+        }
+    }
+    
+    /**
+     * On Windows a file that a viewer still has open cannot be renamed, so a
+     * successful rename means the viewer is done with it. Other platforms do
+     * not lock open files and rely on the TTL alone.
+     */
+    private boolean isReleased(Path path) {
+        try {
+            Path probe = path.resolveSibling(path.getFileName() + ".release");
+            Files.move(path, probe, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(probe, path, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private void deleteTree(Path root) {
+        if (!Files.exists(root)) {
+            return;
+        }
+        
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                if (Files.isRegularFile(path)) {
+                    SecurityUtil.secureDelete(path.toFile());
+                } else {
+                    path.toFile().delete();
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not remove temp directory: " + root.getFileName());
+        }
+    }
+}
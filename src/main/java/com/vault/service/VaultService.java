@@ -2,7 +2,14 @@ package com.vault.service;
 
 import com.vault.model.VaultFile;
 import com.vault.model.Admin;
+import com.vault.model.PackRecord;
+import com.vault.model.Preview;
+import com.vault.util.BlobLayout;
 import com.vault.util.DatabaseManager;
+import com.vault.util.DecryptPipeline;
+import com.vault.util.MappedBlobReader;
+import com.vault.util.RangeDecryptor;
+import com.vault.util.RecoveryEngine;
 import com.vault.util.SecurityUtil;
 import com.vault.config.SecurityConfig;
 import com.vault.util.SecureErrorHandler;
@@ -11,24 +18,66 @@ import org.apache.commons.io.FileUtils;
 import javax.crypto.SecretKey;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileStore;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
 
 /**
  * Service class for managing vault files
  */
 public class VaultService {
     
+    private static final String TEMP_BLOB_SUFFIX = ".tmp";
+    private static final String VAULT_LOCK_FILE = "vault.lock";
+    
     private static VaultService instance;
     private final DatabaseManager dbManager;
     private final String vaultDirectory;
+    private final PackStore packStore;
+    private final PreviewService previewService;
+    private final DecryptedFileCache decryptedCache;
+    private final DiskSpaceMonitor diskSpaceMonitor;
+    private final IntegrityScrubber integrityScrubber;
     private SecretKey encryptionKey;
+    private final Object exportLock = new Object();
+    private final Object totalsLock = new Object();
+    private long[] storageTotals; // {files, original bytes, stored bytes}
+    private long totalsGeneration; // bumped as each store or delete starts its commit
+    private long totalsLoadedAt; // generation the totals were read from the database at
+    private final FileLock vaultLock; // held for the life of the process
     
     private VaultService() {
         this.dbManager = DatabaseManager.getInstance();
         this.vaultDirectory = createVaultDirectory();
+        this.vaultLock = lockVaultDirectory();
+        this.packStore = new PackStore(new File(vaultDirectory).getParent() + File.separator + "packs");
+        this.previewService = new PreviewService();
+        this.decryptedCache = new DecryptedFileCache();
+        this.diskSpaceMonitor = new DiskSpaceMonitor(vaultDirectory);
+        this.integrityScrubber = new IntegrityScrubber(dbManager, packStore, this::resolveBlobFile);
+        recoverPendingIntents();
     }
     
     public static synchronized VaultService getInstance() {
@@ -38,6 +87,19 @@ public class VaultService {
         return instance;
     }
     
+    /**
+     * Start background maintenance of the vault directory. Deferred by the UI
+     * until its first frame is on screen; safe to call more than once.
+     */
+    public void startBackgroundMaintenance() {
+        // Move any legacy flat blobs into the sharded layout in the background
+        BlobMigrator.getInstance().startAsync(vaultDirectory);
+        
+        // Clean up after imports and deletes that were cut short by a crash
+        // (the reconciler waits for the migration so moved blobs are not missed)
+        BlobReconciler.getInstance().startAsync(vaultDirectory);
+    }
+    
     /**
      * Set encryption key for file operations
      */
@@ -58,6 +120,34 @@ public class VaultService {
         return vaultPath;
     }
     
+    /**
+     * Take the vault for this process. Intent recovery rolls back every
+     * unfinished store, which is only safe when no other process (e.g. a
+     * scheduled CLI run next to the GUI) can be in the middle of one.
+     */
+    private FileLock lockVaultDirectory() {
+        File lockFile = new File(new File(vaultDirectory).getParent(), VAULT_LOCK_FILE);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Held by this JVM already; treated like another process
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to lock vault directory", e);
+        }
+        
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing was locked
+        }
+        throw new IllegalStateException("The vault is in use by another process");
+    }
+    
     /**
      * Store a file in the vault
      */
@@ -66,38 +156,336 @@ public class VaultService {
             throw new IllegalStateException("Encryption key not set");
         }
         
-        try {
-            // Read source file
-            byte[] fileData = FileUtils.readFileToByteArray(sourceFile);
+        PendingStore item = new PendingStore(sourceFile, description, tags);
+        storeGroup(Collections.singletonList(item));
+        if (item.failure != null) {
+            throw item.failure;
+        }
+        return item.vaultFile;
+    }
+    
+    /**
+     * Store many files, committing them in groups so a bulk import pays for
+     * one database commit (and one directory sync) per group instead of per file
+     */
+    public List<VaultFile> storeFiles(List<File> sourceFiles, Function<File, String> descriptions, String tags,
+                                      ImportProgressListener listener) {
+        int total = sourceFiles.size();
+        return storeFiles(sourceFiles.iterator(), () -> total, descriptions, tags, listener);
+    }
+    
+    /**
+     * Store files as a source such as a FolderScanner produces them; the
+     * total reported to the listener is read again after every group, so it
+     * may grow while the source is still being scanned
+     */
+    public List<VaultFile> storeFiles(Iterator<File> sourceFiles, IntSupplier total, Function<File, String> descriptions,
+                                      String tags, ImportProgressListener listener) {
+        if (encryptionKey == null) {
+            throw new IllegalStateException("Encryption key not set");
+        }
+        
+        List<VaultFile> stored = new ArrayList<>();
+        List<PendingStore> group = new ArrayList<>();
+        long groupBytes = 0;
+        int completed = 0;
+        
+        while (sourceFiles.hasNext()) {
+            File sourceFile = sourceFiles.next();
+            group.add(new PendingStore(sourceFile, descriptions.apply(sourceFile), tags));
+            groupBytes += sourceFile.length();
             
-            // Encrypt file data
-            byte[] encryptedData = SecurityUtil.encrypt(fileData, encryptionKey);
+            boolean last = !sourceFiles.hasNext();
+            if (!last && group.size() < SecurityConfig.IMPORT_GROUP_MAX_FILES
+                    && groupBytes < SecurityConfig.IMPORT_GROUP_MAX_BYTES) {
+                continue;
+            }
             
-            // Generate secure filename
-            String encryptedFileName = SecurityUtil.generateSecureFileName() + ".enc";
-            String encryptedPath = vaultDirectory + File.separator + encryptedFileName;
+            // Cancelled imports stop at a group boundary
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
             
-            // Write encrypted file
-            FileUtils.writeByteArrayToFile(new File(encryptedPath), encryptedData);
+            storeGroup(group);
+            for (PendingStore item : group) {
+                completed++;
+                if (item.failure == null) {
+                    stored.add(item.vaultFile);
+                } else {
+                    System.err.println("Failed to add file " + item.sourceFile.getName() + ": " + item.failure.getMessage());
+                }
+                if (listener != null) {
+                    listener.onFileImported(item.sourceFile, item.failure == null ? item.vaultFile : null,
+                        item.failure, completed, Math.max(completed, total.getAsInt()));
+                }
+            }
+            group.clear();
+            groupBytes = 0;
+        }
+        
+        return stored;
+    }
+    
+    /**
+     * Store a group of files crash-consistently: log store intents, write
+     * each blob to a .tmp name, fsync, rename into place, then insert the rows
+     * and clear the intents in one transaction. Anything still in the intent
+     * log at startup is rolled back by recoverPendingIntents. Small files are
+     * appended to a pack segment instead, synced once per segment, and their
+     * pack records are indexed in the same transaction; appends of a group
+     * that never commits are only dead space for compaction.
+     */
+    private void storeGroup(List<PendingStore> group) {
+        try {
+            // Encrypt and pick blob names; nothing touches the vault yet
+            List<String> blobPaths = new ArrayList<>();
+            for (PendingStore item : group) {
+                try {
+                    prepareStore(item);
+                    if (item.tempFile != null) {
+                        blobPaths.add(item.vaultFile.getEncryptedPath());
+                    }
+                } catch (IOException e) {
+                    item.fail(new RuntimeException("Failed to store file: " + e.getMessage(), e));
+                } catch (RuntimeException e) {
+                    item.fail(e);
+                }
+            }
+            try {
+                dbManager.logIntents(DatabaseManager.INTENT_STORE, blobPaths);
+            } catch (RuntimeException e) {
+                failPending(group, e);
+            }
             
-            // Create vault file record
-            VaultFile vaultFile = new VaultFile(
-                sourceFile.getName(),
-                encryptedPath,
-                getFileExtension(sourceFile.getName()),
-                sourceFile.length(),
-                description,
-                tags
-            );
+            // Write every blob first and sync them afterwards, so the disk can
+            // flush the whole group together
+            List<PackRecord> appended = new ArrayList<>();
+            for (PendingStore item : group) {
+                if (!item.pending()) {
+                    continue;
+                }
+                try {
+                    if (item.tempFile != null) {
+                        writeTempBlob(item);
+                    } else {
+                        item.packRecord = packStore.append(item.encrypted);
+                        appended.add(item.packRecord);
+                    }
+                    item.encrypted = null; // on disk now; a group can hold many of these
+                } catch (IOException e) {
+                    item.fail(new RuntimeException("Failed to store file: " + e.getMessage(), e));
+                }
+            }
+            try {
+                packStore.force(appended);
+            } catch (IOException e) {
+                for (PendingStore item : group) {
+                    if (item.pending() && item.packRecord != null) {
+                        item.fail(new RuntimeException("Failed to store file: " + e.getMessage(), e));
+                    }
+                }
+            }
+            Set<Path> blobDirectories = new HashSet<>();
+            for (PendingStore item : group) {
+                if (item.pending() && item.tempFile != null) {
+                    try {
+                        publishBlob(item);
+                        blobDirectories.add(item.tempFile.toPath().getParent());
+                    } catch (IOException e) {
+                        item.fail(new RuntimeException("Failed to store file: " + e.getMessage(), e));
+                    }
+                }
+            }
+            for (Path directory : blobDirectories) {
+                syncDirectory(directory);
+            }
             
-            // Save to database
-            int fileId = dbManager.saveVaultFile(vaultFile);
-            vaultFile.setId(fileId);
+            // Commit point: rows and pack records in, intents out
+            List<VaultFile> committed = new ArrayList<>();
+            List<PackRecord> committedRecords = new ArrayList<>();
+            for (PendingStore item : group) {
+                if (item.pending()) {
+                    committed.add(item.vaultFile);
+                    committedRecords.add(item.packRecord);
+                }
+            }
+            long totalsChange = beginTotalsChange();
+            try {
+                if (!committed.isEmpty()) {
+                    dbManager.saveVaultFiles(committed, committedRecords, PackStore::toPath);
+                }
+            } catch (RuntimeException e) {
+                failPending(group, e);
+            } finally {
+                packStore.release(appended);
+            }
             
-            return vaultFile;
+            // Roll back the blobs of files that did not make it
+            List<String> abandoned = new ArrayList<>();
+            boolean abandonedAppends = false;
+            for (PendingStore item : group) {
+                if (item.failure == null || item.vaultFile == null) {
+                    continue;
+                }
+                if (item.tempFile != null) {
+                    new File(item.vaultFile.getEncryptedPath()).delete();
+                    item.tempFile.delete();
+                    abandoned.add(item.vaultFile.getEncryptedPath());
+                } else if (item.packRecord != null) {
+                    abandonedAppends = true;
+                }
+            }
+            if (abandonedAppends) {
+                packStore.scheduleCompaction();
+            }
+            try {
+                dbManager.clearIntents(DatabaseManager.INTENT_STORE, abandoned);
+            } catch (RuntimeException e) {
+                // Left for recoverPendingIntents on the next start
+                System.err.println("Could not clear store intents: " + e.getMessage());
+            }
             
+            for (PendingStore item : group) {
+                if (item.failure == null) {
+                    diskSpaceMonitor.recordWritten(item.vaultFile.getStoredSize());
+                    adjustTotals(totalsChange, 1, item.vaultFile.getFileSize(), item.vaultFile.getStoredSize());
+                    
+                    // Hand the plaintext still in memory to the preview thread
+                    if (item.plaintext != null) {
+                        previewService.queuePreview(item.vaultFile.getId(), item.vaultFile.getFileType(),
+                            item.plaintext, encryptionKey);
+                    }
+                }
+            }
+        } finally {
+            for (PendingStore item : group) {
+                item.release();
+            }
+        }
+    }
+    
+    private void failPending(List<PendingStore> group, RuntimeException e) {
+        for (PendingStore item : group) {
+            if (item.pending()) {
+                item.fail(e);
+            }
+        }
+    }
+    
+    private void prepareStore(PendingStore item) throws IOException {
+        File sourceFile = item.sourceFile;
+        
+        // Hold the space for this file so concurrent imports cannot oversubscribe the disk
+        item.reservation = diskSpaceMonitor.reserve(getEstimatedSpaceForFile(sourceFile.length()));
+        if (item.reservation == null) {
+            throw new RuntimeException("Insufficient disk space to store file: " + sourceFile.getName());
+        }
+        
+        // Read source file
+        item.plaintext = FileUtils.readFileToByteArray(sourceFile);
+        
+        // Encrypt file data
+        item.encrypted = SecurityUtil.encrypt(item.plaintext, encryptionKey);
+        
+        // Small files share a pack segment (their path is set when the record
+        // is indexed at commit), larger ones get their own blob
+        String encryptedPath = null;
+        boolean packed = item.plaintext.length <= SecurityConfig.PACK_THRESHOLD;
+        
+        // The plaintext is only kept for the preview built after the commit
+        String fileType = getFileExtension(sourceFile.getName());
+        if (!PreviewService.isPreviewable(fileType, item.plaintext.length)) {
+            item.plaintext = null;
+        }
+        
+        if (!packed) {
+            // Generate secure filename
+            String encryptedFileName = SecurityUtil.generateSecureFileName() + BlobLayout.BLOB_EXTENSION;
+            encryptedPath = BlobLayout.shardedPath(vaultDirectory, encryptedFileName);
+            item.tempFile = new File(encryptedPath + TEMP_BLOB_SUFFIX);
+        }
+        
+        // Create vault file record
+        VaultFile vaultFile = new VaultFile(
+            sourceFile.getName(),
+            encryptedPath,
+            fileType,
+            sourceFile.length(),
+            item.description,
+            item.tags
+        );
+        vaultFile.setStoredSize(item.encrypted.length);
+        vaultFile.setChecksum(SecurityUtil.checksum(item.encrypted));
+        item.vaultFile = vaultFile;
+    }
+    
+    private void writeTempBlob(PendingStore item) throws IOException {
+        writeTempBlob(item.tempFile, item.encrypted);
+    }
+    
+    private void writeTempBlob(File tempFile, byte[] data) throws IOException {
+        // Parent shard directories are created as needed
+        Files.createDirectories(tempFile.toPath().getParent());
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    private void publishBlob(PendingStore item) throws IOException {
+        publishBlob(item.tempFile, item.vaultFile.getEncryptedPath());
+    }
+    
+    private void publishBlob(File tempFile, String encryptedPath) throws IOException {
+        Path temp = tempFile.toPath();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, Paths.get(encryptedPath), StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Make renames in a directory durable; not supported on every platform,
+     * where the file sync above is the best we can do
+     */
+    private void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
+            // Windows cannot open directories as channels
+        }
+    }
+    
+    /**
+     * Finish what an earlier session left in the intent log: blobs of stores
+     * that never committed are removed, deletes that committed are completed
+     */
+    private void recoverPendingIntents() {
+        try {
+            List<String> stores = dbManager.getPendingIntents(DatabaseManager.INTENT_STORE);
+            for (String blobPath : stores) {
+                if (!dbManager.isBlobReferenced(blobPath)) {
+                    new File(blobPath).delete();
+                }
+                new File(blobPath + TEMP_BLOB_SUFFIX).delete();
+            }
+            dbManager.clearIntents(DatabaseManager.INTENT_STORE, stores);
+            
+            List<String> deletes = dbManager.getPendingIntents(DatabaseManager.INTENT_DELETE);
+            for (String blobPath : deletes) {
+                new File(blobPath).delete();
+            }
+            dbManager.clearIntents(DatabaseManager.INTENT_DELETE, deletes);
+            
+            if (!stores.isEmpty() || !deletes.isEmpty()) {
+                System.out.println("Recovered " + stores.size() + " unfinished store(s) and "
+                    + deletes.size() + " unfinished delete(s).");
+            }
+        } catch (Exception e) {
+            SecureErrorHandler.handleApplicationError(e);
         }
     }
     
@@ -115,37 +503,30 @@ public class VaultService {
                 throw new IllegalArgumentException("Invalid vault file");
             }
             
-            File encryptedFile = new File(vaultFile.getEncryptedPath());
-            if (!encryptedFile.exists()) {
+            if (!fileExists(vaultFile)) {
                 throw new RuntimeException("Encrypted file not found: " + vaultFile.getEncryptedPath());
             }
             
-            // System.out.println("Reading encrypted file: " + vaultFile.getEncryptedPath());
-            // System.out.println("File size: " + encryptedFile.length() + " bytes");
+            // Create output file with a unique name
+            File outputFile = uniqueOutputFile(outputDirectory, vaultFile.getOriginalName(), "");
             
-            // Read encrypted file
-            byte[] encryptedData = FileUtils.readFileToByteArray(encryptedFile);
-            // System.out.println("Read " + encryptedData.length + " bytes of encrypted data");
+            // Large standalone blobs are decrypted straight from mapped windows
+            if (!PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+                File encryptedFile = resolveBlobFile(vaultFile);
+                if (encryptedFile.length() > SecurityConfig.MAPPED_READ_THRESHOLD) {
+                    decryptMappedTo(encryptedFile, outputFile);
+                    System.out.println("Successfully wrote decrypted file: " + outputFile.getAbsolutePath());
+                    return outputFile;
+                }
+            }
+            
+            // Read encrypted blob (standalone file or pack record)
+            byte[] encryptedData = readEncryptedBlob(vaultFile);
             
             // Decrypt file data
             byte[] decryptedData = SecurityUtil.decrypt(encryptedData, encryptionKey);
             System.out.println("Decrypted " + decryptedData.length + " bytes of data");
             
-            // Create output file
-            String outputPath = outputDirectory + File.separator + vaultFile.getOriginalName();
-            File outputFile = new File(outputPath);
-            
-            // Ensure unique filename
-            int counter = 1;
-            while (outputFile.exists()) {
-                String nameWithoutExt = getFileNameWithoutExtension(vaultFile.getOriginalName());
-                String extension = getFileExtension(vaultFile.getOriginalName());
-                String newName = nameWithoutExt + "_" + counter + 
-                               (extension.isEmpty() ? "" : "." + extension);
-                outputFile = new File(outputDirectory + File.separator + newName);
-                counter++;
-            }
-            
             // Write decrypted file
             FileUtils.writeByteArrayToFile(outputFile, decryptedData);
             System.out.println("Successfully wrote decrypted file: " + outputFile.getAbsolutePath());
@@ -177,24 +558,309 @@ public class VaultService {
     }
     
     /**
-     * Delete a file from the vault
+     * Get a decrypted copy of a file for opening in an external application.
+     * Copies are cached for the session, so re-opening a file is instant.
      */
-    public boolean deleteFile(VaultFile vaultFile) {
+    public File openFile(VaultFile vaultFile) {
+        File cached = decryptedCache.get(vaultFile);
+        if (cached != null) {
+            return cached;
+        }
+        
         try {
-            // Delete encrypted file
-            File encryptedFile = new File(vaultFile.getEncryptedPath());
-            if (encryptedFile.exists()) {
-                encryptedFile.delete();
+            // Each copy gets its own directory so it keeps its original name
+            TempFileManager tempFiles = TempFileManager.getInstance();
+            Path openDirectory = tempFiles.createTempDirectory();
+            
+            File decrypted;
+            try {
+                decrypted = retrieveFile(vaultFile, openDirectory.toString());
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(openDirectory);
+                throw e;
             }
+            tempFiles.register(decrypted);
             
-            // Delete from database
-            return dbManager.deleteVaultFile(vaultFile.getId());
+            decryptedCache.put(vaultFile, decrypted);
+            return decrypted;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to prepare file for opening: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Get a loopback URL that streams a file to a media player without
+     * writing any plaintext to disk
+     */
+    public String streamFile(VaultFile vaultFile) {
+        if (encryptionKey == null) {
+            throw new IllegalStateException("Encryption key not set");
+        }
+        return MediaStreamServer.getInstance().createStreamUrl(vaultFile);
+    }
+    
+    /**
+     * Open a random-access decryptor over the blob of a file
+     */
+    public RangeDecryptor openRangeDecryptor(VaultFile vaultFile) throws IOException {
+        if (encryptionKey == null) {
+            throw new IllegalStateException("Encryption key not set");
+        }
+        if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+            return packStore.openRange(PackStore.recordId(vaultFile.getEncryptedPath()), encryptionKey);
+        }
+        
+        FileChannel channel = FileChannel.open(resolveBlobFile(vaultFile).toPath(), StandardOpenOption.READ);
+        return new RangeDecryptor(channel, 0, channel.size(), encryptionKey);
+    }
+    
+    /**
+     * Wipe decrypted copies created during this session (on logout, lock or exit)
+     */
+    public void cleanup() {
+        decryptedCache.clear();
+        TempFileManager.getInstance().wipeAll();
+        MediaStreamServer.getInstance().revokeAll();
+    }
+    
+    /**
+     * Decrypt a large blob into the output file without buffering it on the heap
+     */
+    private void decryptMappedTo(File encryptedFile, File outputFile) throws IOException {
+        try (FileChannel out = FileChannel.open(outputFile.toPath(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long written = MappedBlobReader.decryptTo(encryptedFile.toPath(), encryptionKey, out);
+            System.out.println("Decrypted " + written + " bytes of data");
+        } catch (IOException | RuntimeException e) {
+            // Never leave a truncated plaintext copy behind
+            Files.deleteIfExists(outputFile.toPath());
+            throw e;
+        }
+    }
+    
+    /**
+     * Pick an output file name that does not clash with an existing file
+     */
+    private File uniqueOutputFile(String outputDirectory, String originalName, String suffix) {
+        File outputFile = new File(outputDirectory + File.separator + originalName);
+        
+        int counter = 1;
+        while (outputFile.exists()) {
+            String nameWithoutExt = getFileNameWithoutExtension(originalName);
+            String extension = getFileExtension(originalName);
+            String newName = nameWithoutExt + suffix + "_" + counter + 
+                           (extension.isEmpty() ? "" : "." + extension);
+            outputFile = new File(outputDirectory + File.separator + newName);
+            counter++;
+        }
+        
+        return outputFile;
+    }
+    
+    /**
+     * Export every file in the vault to a directory
+     */
+    public ExportResult exportAllFiles(String outputDirectory, ExportProgressListener listener) {
+        return exportFiles(getAllFiles(), outputDirectory, listener);
+    }
+    
+    /**
+     * Export a selection of vault files to a directory. Each blob is streamed
+     * through a per-thread decrypt pipeline and several files run at once.
+     */
+    public ExportResult exportFiles(List<VaultFile> files, String outputDirectory, ExportProgressListener listener) {
+        if (encryptionKey == null) {
+            throw new IllegalStateException("Encryption key not set");
+        }
+        
+        try {
+            Files.createDirectories(Paths.get(outputDirectory));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create export directory: " + e.getMessage(), e);
+        }
+        
+        int parallelism = exportParallelism(outputDirectory);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "vault-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<DecryptPipeline> pipelines = ThreadLocal.withInitial(DecryptPipeline::new);
+        
+        int total = files.size();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicLong bytesWritten = new AtomicLong();
+        List<String> failedFiles = Collections.synchronizedList(new ArrayList<>());
+        
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (VaultFile vaultFile : files) {
+                tasks.add(executor.submit(() -> {
+                    boolean success = false;
+                    try {
+                        bytesWritten.addAndGet(exportFile(vaultFile, outputDirectory, pipelines.get()));
+                        success = true;
+                    } catch (Exception e) {
+                        failedFiles.add(vaultFile.getOriginalName());
+                        SecurityConfig.secureLog(java.util.logging.Level.WARNING,
+                                "Export failed for file {0}: {1}", vaultFile.getId(), e.getClass().getSimpleName());
+                    }
+                    
+                    int done = completed.incrementAndGet();
+                    if (listener != null) {
+                        listener.onFileExported(vaultFile, success, done, total);
+                    }
+                }));
+            }
             
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            // Cancelled: drop queued files and stop the running ones
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Export failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        
+        System.out.println("Exported " + (completed.get() - failedFiles.size()) + " of " + total
+                + " files using " + parallelism + " worker(s)");
+        return new ExportResult(completed.get() - failedFiles.size(), new ArrayList<>(failedFiles), bytesWritten.get());
+    }
+    
+    /**
+     * Stream one vault file into a new file in the output directory
+     */
+    private long exportFile(VaultFile vaultFile, String outputDirectory, DecryptPipeline pipeline) throws IOException {
+        File outputFile = reserveOutputFile(outputDirectory, vaultFile.getOriginalName());
+        
+        try (FileChannel out = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE)) {
+            if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+                return packStore.decryptTo(PackStore.recordId(vaultFile.getEncryptedPath()), pipeline, encryptionKey, out);
+            }
+            
+            try (FileChannel in = FileChannel.open(resolveBlobFile(vaultFile).toPath(), StandardOpenOption.READ)) {
+                return pipeline.decrypt(in, encryptionKey, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Never leave a truncated plaintext copy behind
+            Files.deleteIfExists(outputFile.toPath());
+            throw e;
+        }
+    }
+    
+    /**
+     * Pick and create a unique output file; workers exporting files with the
+     * same name must not race for the same path
+     */
+    private File reserveOutputFile(String outputDirectory, String originalName) throws IOException {
+        synchronized (exportLock) {
+            File outputFile = uniqueOutputFile(outputDirectory, originalName, "");
+            Files.createFile(outputFile.toPath());
+            return outputFile;
+        }
+    }
+    
+    /**
+     * Export throughput is bound by the disks rather than the cores. When the
+     * vault and the target share a device, reads and writes compete for it,
+     * so fewer workers are used.
+     */
+    private int exportParallelism(String outputDirectory) {
+        int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), SecurityConfig.EXPORT_MAX_PARALLELISM);
+        try {
+            FileStore source = Files.getFileStore(Paths.get(vaultDirectory));
+            FileStore target = Files.getFileStore(Paths.get(outputDirectory));
+            if (source.equals(target)) {
+                parallelism = Math.max(1, parallelism / 2);
+            }
+        } catch (IOException e) {
+            // Fall back to the CPU-based cap
+        }
+        return parallelism;
+    }
+    
+    /**
+     * Delete a file from the vault
+     */
+    public boolean deleteFile(VaultFile vaultFile) {
+        try {
+            return deleteFiles(Collections.singletonList(vaultFile)) > 0;
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete file: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Delete a batch of files: all rows go in one transaction together with
+     * delete intents for their blobs, then the blobs are removed and pack
+     * compaction is queued once. A blob that cannot be removed keeps its
+     * intent and is retried on the next start.
+     */
+    public int deleteFiles(List<VaultFile> vaultFiles) {
+        List<Long> fileIds = new ArrayList<>();
+        List<Long> packRecordIds = new ArrayList<>();
+        List<File> blobFiles = new ArrayList<>();
+        
+        for (VaultFile vaultFile : vaultFiles) {
+            decryptedCache.invalidate(vaultFile.getId());
+            fileIds.add(vaultFile.getId());
+            if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+                packRecordIds.add(PackStore.recordId(vaultFile.getEncryptedPath()));
+            } else {
+                blobFiles.add(resolveBlobFile(vaultFile));
+            }
+        }
+        
+        List<String> blobPaths = new ArrayList<>();
+        for (File blobFile : blobFiles) {
+            blobPaths.add(blobFile.getPath());
+        }
+        
+        long totalsChange = beginTotalsChange();
+        int deleted = dbManager.deleteVaultFiles(fileIds, packRecordIds, blobPaths);
+        if (deleted == vaultFiles.size()) {
+            removeFromTotals(totalsChange, vaultFiles);
+        } else {
+            invalidateTotals();
+        }
+        
+        List<String> removed = new ArrayList<>();
+        for (File blobFile : blobFiles) {
+            if (blobFile.exists() && !blobFile.delete()) {
+                System.err.println("Could not remove encrypted blob: " + blobFile.getName());
+            } else {
+                removed.add(blobFile.getPath());
+            }
+        }
+        dbManager.clearIntents(DatabaseManager.INTENT_DELETE, removed);
+        if (!packRecordIds.isEmpty()) {
+            packStore.scheduleCompaction();
+        }
+        diskSpaceMonitor.refreshAsync();
+        
+        return deleted;
+    }
+    
+    /**
+     * Replace the tags of a batch of files in one transaction
+     */
+    public int retagFiles(List<VaultFile> vaultFiles, String tags) {
+        List<Long> fileIds = new ArrayList<>();
+        for (VaultFile vaultFile : vaultFiles) {
+            fileIds.add(vaultFile.getId());
+        }
+        
+        int updated = dbManager.updateTags(fileIds, tags);
+        for (VaultFile vaultFile : vaultFiles) {
+            vaultFile.setTags(tags);
+        }
+        return updated;
+    }
+    
     /**
      * Get all vault files
      */
@@ -222,21 +888,218 @@ public class VaultService {
         return dbManager.searchVaultFiles(searchTerm);
     }
     
+    /**
+     * Search vault files, handing each match to the consumer as it is read;
+     * the consumer returns false to cancel the search
+     */
+    public void searchFiles(String searchTerm, Predicate<VaultFile> consumer) {
+        dbManager.searchVaultFiles(searchTerm, consumer);
+    }
+    
+    /**
+     * Get the decrypted preview of a file, or null if none was generated
+     */
+    public Preview getPreview(VaultFile vaultFile) {
+        if (encryptionKey == null) {
+            throw new IllegalStateException("Encryption key not set");
+        }
+        return previewService.getPreview(vaultFile.getId(), encryptionKey);
+    }
+    
     /**
      * Check if a file exists in the vault storage
      */
     public boolean fileExists(VaultFile vaultFile) {
-        return new File(vaultFile.getEncryptedPath()).exists();
+        if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+            return packStore.exists(PackStore.recordId(vaultFile.getEncryptedPath()));
+        }
+        return resolveBlobFile(vaultFile).exists();
+    }
+    
+    /**
+     * Read the encrypted bytes of a vault file from its pack record or blob file
+     */
+    private byte[] readEncryptedBlob(VaultFile vaultFile) throws IOException {
+        if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+            return packStore.read(PackStore.recordId(vaultFile.getEncryptedPath()));
+        }
+        return FileUtils.readFileToByteArray(resolveBlobFile(vaultFile));
+    }
+    
+    /**
+     * Replace the encrypted bytes of a vault file. The new ciphertext is
+     * synced under a new name (or appended to a pack segment) before one
+     * update points the row at it with its checksum and next blob version, so
+     * neither a crash nor a concurrent scrub ever sees new bytes under the old
+     * checksum. The old blob is removed afterwards.
+     */
+    private void writeEncryptedBlob(VaultFile vaultFile, byte[] encryptedData) throws IOException {
+        long checksum = SecurityUtil.checksum(encryptedData);
+        int blobVersion;
+        
+        if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+            PackRecord record = packStore.append(encryptedData);
+            try {
+                packStore.force(List.of(record));
+                blobVersion = dbManager.replacePackRecordLocation(
+                    PackStore.recordId(vaultFile.getEncryptedPath()), record, vaultFile.getId(), checksum);
+            } finally {
+                packStore.release(List.of(record));
+            }
+            packStore.scheduleCompaction();
+        } else {
+            File oldBlob = resolveBlobFile(vaultFile);
+            String encryptedPath = BlobLayout.shardedPath(vaultDirectory,
+                SecurityUtil.generateSecureFileName() + BlobLayout.BLOB_EXTENSION);
+            File tempFile = new File(encryptedPath + TEMP_BLOB_SUFFIX);
+            
+            dbManager.logIntents(DatabaseManager.INTENT_STORE, List.of(encryptedPath));
+            writeTempBlob(tempFile, encryptedData);
+            publishBlob(tempFile, encryptedPath);
+            syncDirectory(tempFile.toPath().getParent());
+            
+            blobVersion = dbManager.replaceBlob(vaultFile.getId(), encryptedPath, checksum);
+            dbManager.clearIntents(DatabaseManager.INTENT_STORE, List.of(encryptedPath));
+            vaultFile.setEncryptedPath(encryptedPath);
+            
+            dbManager.logIntents(DatabaseManager.INTENT_DELETE, List.of(oldBlob.getPath()));
+            if (!oldBlob.delete() && oldBlob.exists()) {
+                System.err.println("Could not remove replaced blob: " + oldBlob.getName());
+            } else {
+                dbManager.clearIntents(DatabaseManager.INTENT_DELETE, List.of(oldBlob.getPath()));
+            }
+        }
+        vaultFile.setChecksum(checksum);
+        
+        // Cached plaintext of the old blob must never be served again
+        vaultFile.setBlobVersion(blobVersion);
+        decryptedCache.invalidate(vaultFile.getId());
+    }
+    
+    /**
+     * Resolve the blob for a vault file, following it into the sharded layout
+     * if the background migrator moved it after the row was loaded
+     */
+    private File resolveBlobFile(VaultFile vaultFile) {
+        // Only called for standalone blobs; pack records have no file of their own
+        File blob = new File(vaultFile.getEncryptedPath());
+        if (!blob.exists() && !BlobLayout.isSharded(vaultDirectory, vaultFile.getEncryptedPath())) {
+            File sharded = new File(BlobLayout.shardedPath(vaultDirectory, blob.getName()));
+            if (sharded.exists()) {
+                vaultFile.setEncryptedPath(sharded.getAbsolutePath());
+                return sharded;
+            }
+        }
+        return blob;
+    }
+    
+    /**
+     * Verify stored blobs that are due for a check against their checksums
+     */
+    public IntegrityScrubber.ScrubReport scrubIntegrity() {
+        return integrityScrubber.scrub();
+    }
+    
+    /**
+     * Get files whose last integrity check found them missing or corrupt
+     */
+    public List<VaultFile> getFilesFailingIntegrity() {
+        return dbManager.getFilesFailingIntegrity();
+    }
+    
+    /**
+     * Compare blobs on disk with the database; with repair set, orphaned
+     * blobs are quarantined and files without a blob are flagged
+     */
+    public BlobReconciler.ReconcileReport reconcileBlobs(boolean repair) {
+        return BlobReconciler.getInstance().reconcile(vaultDirectory, repair);
     }
     
     /**
      * Get vault storage statistics
      */
     public VaultStats getVaultStats() {
-        List<VaultFile> allFiles = getAllFiles();
-        long totalSize = allFiles.stream().mapToLong(VaultFile::getFileSize).sum();
+        long[] totals = getStorageTotals();
+        return new VaultStats((int) totals[0], totals[1], totals[2]);
+    }
+    
+    /**
+     * Load the file list once and derive the stats and space views from it
+     */
+    public VaultSnapshot getSnapshot() {
+        List<VaultFile> files = getAllFiles();
+        VaultStats stats = computeStats(files);
+        DiskSpaceStatus diskStatus = checkDiskSpace(getSpaceInfo(stats));
         
-        return new VaultStats(allFiles.size(), totalSize);
+        return new VaultSnapshot(files, stats, diskStatus);
+    }
+    
+    private VaultStats computeStats(List<VaultFile> files) {
+        long totalSize = files.stream().mapToLong(VaultFile::getFileSize).sum();
+        long storedSize = files.stream().mapToLong(VaultFile::getStoredSize).sum();
+        return new VaultStats(files.size(), totalSize, storedSize);
+    }
+    
+    /**
+     * Running vault totals; read from the database once, then kept up to
+     * date as files are stored and deleted
+     */
+    private long[] getStorageTotals() {
+        synchronized (totalsLock) {
+            if (storageTotals == null) {
+                storageTotals = dbManager.getStorageTotals();
+                totalsLoadedAt = totalsGeneration;
+            }
+            return storageTotals.clone();
+        }
+    }
+    
+    /**
+     * Called before a store or delete commits; pass the result to adjustTotals
+     */
+    private long beginTotalsChange() {
+        synchronized (totalsLock) {
+            return ++totalsGeneration;
+        }
+    }
+    
+    /**
+     * Apply a committed change to the running totals. Totals read from the
+     * database after the change started may already include it, so those
+     * are dropped and read again instead of being adjusted twice.
+     */
+    private void adjustTotals(long change, long files, long originalBytes, long storedBytes) {
+        synchronized (totalsLock) {
+            if (storageTotals == null) {
+                return;
+            }
+            if (totalsLoadedAt >= change) {
+                storageTotals = null;
+                return;
+            }
+            storageTotals[0] += files;
+            storageTotals[1] += originalBytes;
+            storageTotals[2] += storedBytes;
+        }
+    }
+    
+    private void removeFromTotals(long change, List<VaultFile> vaultFiles) {
+        for (VaultFile vaultFile : vaultFiles) {
+            if (vaultFile.getStoredSize() <= 0) {
+                // Built outside the database; the stored size is unknown
+                invalidateTotals();
+                return;
+            }
+        }
+        for (VaultFile vaultFile : vaultFiles) {
+            adjustTotals(change, -1, -vaultFile.getFileSize(), -vaultFile.getStoredSize());
+        }
+    }
+    
+    private void invalidateTotals() {
+        synchronized (totalsLock) {
+            storageTotals = null;
+        }
     }
     
     private String getFileExtension(String fileName) {
@@ -259,11 +1122,12 @@ public class VaultService {
      * Get dynamic space requirements and usage information
      */
     public SpaceInfo getSpaceInfo() {
-        VaultStats stats = getVaultStats();
-        
-        // Calculate overhead for encryption and metadata (approximately 20% overhead)
-        long encryptionOverhead = (long) (stats.getTotalSize() * 0.2);
-        long totalUsedSpace = stats.getTotalSize() + encryptionOverhead;
+        return getSpaceInfo(getVaultStats());
+    }
+    
+    private SpaceInfo getSpaceInfo(VaultStats stats) {
+        // Actual bytes of the stored blobs, recorded per file at ingest
+        long totalUsedSpace = stats.getStoredSize();
         
         // Recommended free space: current usage + 50% buffer for new files
         long recommendedFreeSpace = (long) (totalUsedSpace * 1.5);
@@ -279,13 +1143,16 @@ public class VaultService {
      * Check available disk space in vault directory
      */
     public DiskSpaceStatus checkDiskSpace() {
+        return checkDiskSpace(getSpaceInfo());
+    }
+    
+    private DiskSpaceStatus checkDiskSpace(SpaceInfo spaceInfo) {
         try {
-            File vaultDir = new File(vaultDirectory);
-            long freeSpace = vaultDir.getFreeSpace();
-            long totalSpace = vaultDir.getTotalSpace();
-            long usableSpace = vaultDir.getUsableSpace();
-            
-            SpaceInfo spaceInfo = getSpaceInfo();
+            // Answered from the monitor's cached sample, not the filesystem
+            DiskSpaceMonitor.Sample sample = diskSpaceMonitor.getSample();
+            long freeSpace = sample.getFreeSpace();
+            long totalSpace = sample.getTotalSpace();
+            long usableSpace = sample.getUsableSpace();
             
             boolean hasEnoughSpace = freeSpace >= spaceInfo.getMinimumRequiredSpace();
             boolean hasRecommendedSpace = freeSpace >= spaceInfo.getRecommendedFreeSpace();
@@ -294,7 +1161,7 @@ public class VaultService {
                                      hasEnoughSpace, hasRecommendedSpace, spaceInfo);
         } catch (Exception e) {
             // Return default status if unable to check
-            return new DiskSpaceStatus(0, 0, 0, false, false, getSpaceInfo());
+            return new DiskSpaceStatus(0, 0, 0, false, false, spaceInfo);
         }
     }
     
@@ -302,8 +1169,8 @@ public class VaultService {
      * Get estimated space needed for a new file
      */
     public long getEstimatedSpaceForFile(long fileSize) {
-        // Encryption overhead + metadata storage
-        return (long) (fileSize * 1.2) + 1024; // 20% overhead + 1KB metadata
+        // Exact: the IV plus at most one block of padding
+        return SecurityUtil.encryptedSize(fileSize);
     }
     
     /**
@@ -311,16 +1178,20 @@ public class VaultService {
      */
     public boolean canStoreFile(long fileSize) {
         try {
-            File vaultDir = new File(vaultDirectory);
-            long freeSpace = vaultDir.getFreeSpace();
-            long estimatedSpace = getEstimatedSpaceForFile(fileSize);
-            
-            return freeSpace >= estimatedSpace;
+            // Space already reserved by in-flight imports is not available
+            return diskSpaceMonitor.canFit(getEstimatedSpaceForFile(fileSize));
         } catch (Exception e) {
             return false;
         }
     }
     
+    /**
+     * Get the cached disk space monitor for the vault volume
+     */
+    public DiskSpaceMonitor getDiskSpaceMonitor() {
+        return diskSpaceMonitor;
+    }
+    
     /**
      * Check if there's enough space for a new file (overloaded for File parameter)
      */
@@ -352,21 +1223,20 @@ public class VaultService {
             
             for (VaultFile vaultFile : allFiles) {
                 try {
-                    File encryptedFile = new File(vaultFile.getEncryptedPath());
-                    if (!encryptedFile.exists()) {
+                    if (!fileExists(vaultFile)) {
                         System.err.println("Warning: Encrypted file not found: " + vaultFile.getEncryptedPath());
                         continue;
                     }
                     
                     // Read and decrypt with old key
-                    byte[] encryptedData = FileUtils.readFileToByteArray(encryptedFile);
+                    byte[] encryptedData = readEncryptedBlob(vaultFile);
                     byte[] decryptedData = SecurityUtil.decrypt(encryptedData, oldKey);
                     
                     // Encrypt with new key
                     byte[] newEncryptedData = SecurityUtil.encrypt(decryptedData, newKey);
                     
-                    // Write back to the same file
-                    FileUtils.writeByteArrayToFile(encryptedFile, newEncryptedData);
+                    // Replace the old blob
+                    writeEncryptedBlob(vaultFile, newEncryptedData);
                     
                     System.out.println("Re-encrypted: " + vaultFile.getOriginalName());
                     
@@ -376,6 +1246,9 @@ public class VaultService {
                 }
             }
             
+            // Previews are encrypted with the same key
+            previewService.reEncryptPreviews(oldKey, newKey);
+            
             // Update the current encryption key
             this.encryptionKey = newKey;
             
@@ -398,56 +1271,31 @@ public class VaultService {
             
             // Try with default admin credentials (admin123)
             String defaultPassword = "admin123";
-            String defaultUsername = "admin";
-            
-            DatabaseManager dbManager = DatabaseManager.getInstance();
-            
-            // First, try to get all admins to find one that might work
-            List<Admin> allAdmins = dbManager.getAllAdmins();
             
-            // Try with default credentials on all admins (in case username changed)
-            for (Admin admin : allAdmins) {
-                try {
-                    System.out.println("Trying recovery with user: " + admin.getUsername());
-                    
-                    // Try with the admin's current salt but default password
-                    SecretKey recoveryKey = SecurityUtil.generateKeyFromPassword(defaultPassword, admin.getSalt());
-                    
-                    if (tryDecryptWithKey(vaultFile, outputDirectory, recoveryKey, "default_password_" + admin.getUsername())) {
-                        this.encryptionKey = recoveryKey;
-                        return getLastRecoveredFile();
-                    }
-                    
-                } catch (Exception e) {
-                    System.out.println("Recovery attempt failed for " + admin.getUsername() + ": " + e.getMessage());
-                }
+            // Default password with every admin's salt (in case username or
+            // password changed), then a standard salt in case the file was
+            // encrypted with standard settings
+            List<RecoveryEngine.Candidate> candidates = new ArrayList<>();
+            for (Admin admin : dbManager.getAllAdmins()) {
+                candidates.add(new RecoveryEngine.Candidate("default_password_" + admin.getUsername(),
+                    defaultPassword, admin.getSalt()));
             }
+            candidates.add(new RecoveryEngine.Candidate("standard_salt", defaultPassword, "VaultAppSalt"));
             
-            // If that fails, try authenticating with default credentials
-            Admin defaultAdmin = dbManager.authenticateAdmin(defaultUsername, defaultPassword);
-            if (defaultAdmin != null) {
-                System.out.println("Trying recovery with authenticated default admin...");
-                
-                SecretKey recoveryKey = SecurityUtil.generateKeyFromPassword(defaultPassword, defaultAdmin.getSalt());
-                
-                if (tryDecryptWithKey(vaultFile, outputDirectory, recoveryKey, "default_auth")) {
-                    this.encryptionKey = recoveryKey;
-                    return getLastRecoveredFile();
-                }
+            if (!fileExists(vaultFile)) {
+                System.out.println("Encrypted file not found: " + vaultFile.getEncryptedPath());
+                return null;
             }
             
-            // If all fails, try with a standard salt (in case file was encrypted with standard settings)
-            try {
-                System.out.println("Trying recovery with standard salt...");
-                String standardSalt = "VaultAppSalt"; // Default salt as string
-                SecretKey recoveryKey = SecurityUtil.generateKeyFromPassword(defaultPassword, standardSalt);
-                
-                if (tryDecryptWithKey(vaultFile, outputDirectory, recoveryKey, "standard_salt")) {
-                    this.encryptionKey = recoveryKey;
-                    return getLastRecoveredFile();
-                }
-            } catch (Exception e) {
-                System.out.println("Standard salt recovery failed: " + e.getMessage());
+            // Only the final cipher block is decrypted per candidate
+            RecoveryEngine.Probe probe = PackStore.isPackPath(vaultFile.getEncryptedPath())
+                ? RecoveryEngine.Probe.of(readEncryptedBlob(vaultFile))
+                : RecoveryEngine.Probe.read(resolveBlobFile(vaultFile));
+            RecoveryEngine.Match match = new RecoveryEngine(candidates).findKey(probe, vaultFile.getFileSize());
+            
+            if (match != null && tryDecryptWithKey(vaultFile, outputDirectory, match.getKey(), match.getCandidate().getLabel())) {
+                this.encryptionKey = match.getKey();
+                return getLastRecoveredFile();
             }
             
             System.out.println("All recovery attempts failed for: " + vaultFile.getOriginalName());
@@ -464,30 +1312,17 @@ public class VaultService {
     private boolean tryDecryptWithKey(VaultFile vaultFile, String outputDirectory, SecretKey key, String method) {
         try {
             // Try to decrypt directly without calling retrieveFile
-            File encryptedFile = new File(vaultFile.getEncryptedPath());
-            if (!encryptedFile.exists()) {
+            if (!fileExists(vaultFile)) {
                 System.out.println("Encrypted file not found: " + vaultFile.getEncryptedPath());
                 return false;
             }
             
             // Read and decrypt
-            byte[] encryptedData = FileUtils.readFileToByteArray(encryptedFile);
+            byte[] encryptedData = readEncryptedBlob(vaultFile);
             byte[] decryptedData = SecurityUtil.decrypt(encryptedData, key);
             
             // Create output file
-            String outputPath = outputDirectory + File.separator + vaultFile.getOriginalName();
-            File outputFile = new File(outputPath);
-            
-            // Ensure unique filename
-            int counter = 1;
-            while (outputFile.exists()) {
-                String nameWithoutExt = getFileNameWithoutExtension(vaultFile.getOriginalName());
-                String extension = getFileExtension(vaultFile.getOriginalName());
-                String newName = nameWithoutExt + "_recovery_" + method + "_" + counter + 
-                               (extension.isEmpty() ? "" : "." + extension);
-                outputFile = new File(outputDirectory + File.separator + newName);
-                counter++;
-            }
+            File outputFile = uniqueOutputFile(outputDirectory, vaultFile.getOriginalName(), "_recovery_" + method);
             
             // Write decrypted file
             FileUtils.writeByteArrayToFile(outputFile, decryptedData);
@@ -512,14 +1347,17 @@ public class VaultService {
     public static class VaultStats {
         private final int fileCount;
         private final long totalSize;
+        private final long storedSize;
         
-        public VaultStats(int fileCount, long totalSize) {
+        public VaultStats(int fileCount, long totalSize, long storedSize) {
             this.fileCount = fileCount;
             this.totalSize = totalSize;
+            this.storedSize = storedSize;
         }
         
         public int getFileCount() { return fileCount; }
         public long getTotalSize() { return totalSize; }
+        public long getStoredSize() { return storedSize; }
         
         public String getFormattedTotalSize() {
             if (totalSize < 1024) return totalSize + " B";
@@ -529,6 +1367,97 @@ public class VaultService {
         }
     }
     
+    /**
+     * Inner class for a consistent view of the file list, stats and space usage
+     */
+    public static class VaultSnapshot {
+        private final List<VaultFile> files;
+        private final VaultStats stats;
+        private final DiskSpaceStatus diskStatus;
+        
+        public VaultSnapshot(List<VaultFile> files, VaultStats stats, DiskSpaceStatus diskStatus) {
+            this.files = files;
+            this.stats = stats;
+            this.diskStatus = diskStatus;
+        }
+        
+        public List<VaultFile> getFiles() { return files; }
+        public VaultStats getStats() { return stats; }
+        public DiskSpaceStatus getDiskStatus() { return diskStatus; }
+    }
+    
+    /**
+     * Callback for bulk export progress; invoked from export worker threads
+     */
+    public interface ExportProgressListener {
+        void onFileExported(VaultFile vaultFile, boolean success, int completed, int total);
+    }
+    
+    /**
+     * Progress callback for bulk imports; vaultFile is null and error set when a file failed
+     */
+    public interface ImportProgressListener {
+        void onFileImported(File sourceFile, VaultFile vaultFile, Exception error, int completed, int total);
+    }
+    
+    /**
+     * One file on its way into the vault, from reservation to commit
+     */
+    private static class PendingStore {
+        private final File sourceFile;
+        private final String description;
+        private final String tags;
+        private DiskSpaceMonitor.Reservation reservation;
+        private byte[] plaintext;
+        private byte[] encrypted;
+        private File tempFile;
+        private PackRecord packRecord;
+        private VaultFile vaultFile;
+        private RuntimeException failure;
+        
+        PendingStore(File sourceFile, String description, String tags) {
+            this.sourceFile = sourceFile;
+            this.description = description;
+            this.tags = tags;
+        }
+        
+        boolean pending() {
+            return failure == null;
+        }
+        
+        void fail(RuntimeException e) {
+            failure = e;
+        }
+        
+        void release() {
+            if (reservation != null) {
+                reservation.close();
+            }
+            plaintext = null;
+            encrypted = null;
+        }
+    }
+    
+    /**
+     * Inner class for bulk export results
+     */
+    public static class ExportResult {
+        private final int exportedCount;
+        private final List<String> failedFiles;
+        private final long bytesWritten;
+        
+        public ExportResult(int exportedCount, List<String> failedFiles, long bytesWritten) {
+            this.exportedCount = exportedCount;
+            this.failedFiles = failedFiles;
+            this.bytesWritten = bytesWritten;
+        }
+        
+        public int getExportedCount() { return exportedCount; }
+        public List<String> getFailedFiles() { return failedFiles; }
+        public long getBytesWritten() { return bytesWritten; }
+        public boolean hasFailures() { return !failedFiles.isEmpty(); }
+    }
+    
     /**
      * Inner class for space information
      */
@@ -0,0 +1,159 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.model.VaultFile;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Non-blocking front end to VaultService.
+ *
+ * Calls return a CompletableFuture and run on one of two sized pools owned
+ * by the vault: one for work dominated by encryption and decryption, and one
+ * for blocking database and disk work. Long imports therefore no longer
+ * hold threads of Swing's shared worker pool. Cancelling a future interrupts
+ * the task; imports stop at the next group boundary and searches at the next
+ * row. Progress listeners are called on the pool thread, so Swing callers
+ * hand updates to the EDT themselves.
+ */
+public class VaultServiceAsync {
+    
+    private static VaultServiceAsync instance;
+    private final VaultService vaultService;
+    private final ExecutorService cryptoExecutor;
+    private final ExecutorService ioExecutor;
+    
+    private VaultServiceAsync(VaultService vaultService) {
+        this.vaultService = vaultService;
+        this.cryptoExecutor = newPool("vault-crypto", SecurityConfig.ASYNC_CRYPTO_THREADS);
+        this.ioExecutor = newPool("vault-io", SecurityConfig.ASYNC_IO_THREADS);
+    }
+    
+    public static synchronized VaultServiceAsync getInstance() {
+        if (instance == null) {
+            instance = new VaultServiceAsync(VaultService.getInstance());
+        }
+        return instance;
+    }
+    
+    /**
+     * Store a file in the vault
+     */
+    public CompletableFuture<VaultFile> storeAsync(File sourceFile, String description, String tags) {
+        return supplyCrypto(() -> vaultService.storeFile(sourceFile, description, tags));
+    }
+    
+    /**
+     * Store many files in group commits, reporting each one to the listener
+     */
+    public CompletableFuture<List<VaultFile>> storeAsync(List<File> sourceFiles, Function<File, String> descriptions,
+                                                         String tags, VaultService.ImportProgressListener listener) {
+        return supplyCrypto(() -> vaultService.storeFiles(sourceFiles, descriptions, tags, listener));
+    }
+    
+    /**
+     * Store files as a source such as a FolderScanner produces them
+     */
+    public CompletableFuture<List<VaultFile>> storeAsync(Iterator<File> sourceFiles, IntSupplier total,
+                                                         Function<File, String> descriptions, String tags,
+                                                         VaultService.ImportProgressListener listener) {
+        return supplyCrypto(() -> vaultService.storeFiles(sourceFiles, total, descriptions, tags, listener));
+    }
+    
+    /**
+     * Decrypt a file into the output directory
+     */
+    public CompletableFuture<File> retrieveAsync(VaultFile vaultFile, String outputDirectory) {
+        return supplyCrypto(() -> vaultService.retrieveFile(vaultFile, outputDirectory));
+    }
+    
+    /**
+     * Decrypt several files into the output directory; the export fans out
+     * on its own disk-bound pool, so only its coordination runs here
+     */
+    public CompletableFuture<VaultService.ExportResult> retrieveAsync(List<VaultFile> vaultFiles, String outputDirectory,
+                                                                      VaultService.ExportProgressListener listener) {
+        return supplyIo(() -> vaultService.exportFiles(vaultFiles, outputDirectory, listener));
+    }
+    
+    /**
+     * Search vault files
+     */
+    public CompletableFuture<List<VaultFile>> searchAsync(String searchTerm) {
+        return searchAsync(searchTerm, match -> {});
+    }
+    
+    /**
+     * Search vault files, handing each match to the callback as it is read;
+     * cancelling the future stops the search at the next row
+     */
+    public CompletableFuture<List<VaultFile>> searchAsync(String searchTerm, Consumer<VaultFile> onMatch) {
+        return supplyIo(() -> {
+            List<VaultFile> matches = new ArrayList<>();
+            vaultService.searchFiles(searchTerm, match -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                matches.add(match);
+                onMatch.accept(match);
+                return true;
+            });
+            return matches;
+        });
+    }
+    
+    /**
+     * Run other encryption-bound work on the crypto pool
+     */
+    public <T> CompletableFuture<T> supplyCrypto(Callable<T> task) {
+        return submit(cryptoExecutor, task);
+    }
+    
+    /**
+     * Run other blocking database or disk work on the I/O pool
+     */
+    public <T> CompletableFuture<T> supplyIo(Callable<T> task) {
+        return submit(ioExecutor, task);
+    }
+    
+    private <T> CompletableFuture<T> submit(ExecutorService executor, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            if (result.isDone()) {
+                return; // cancelled while queued
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        
+        // CompletableFuture.cancel does not reach the running task by itself
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    private static ExecutorService newPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
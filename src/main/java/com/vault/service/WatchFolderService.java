@@ -0,0 +1,343 @@
+package com.vault.service;
+
+import com.vault.config.SecurityConfig;
+import com.vault.util.SecureErrorHandler;
+import com.vault.util.SecurityUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Automatic import of files dropped into a staging folder.
+ *
+ * The folder tree is watched with a WatchService, so new files are learned
+ * from events instead of rescanning. A file is imported once it has had no
+ * events for the debounce period and its size and modification time have
+ * stayed the same between two checks (i.e. the writer has finished). Ready
+ * files are handed to the group-committed store pipeline in batches on a few
+ * worker threads. Imported sources are securely deleted or moved into an
+ * "Ingested" subfolder, which is not watched.
+ */
+public class WatchFolderService {
+    
+    private static final String INGESTED_DIRECTORY = "Ingested";
+    
+    private static WatchFolderService instance;
+    private final Map<Path, PendingFile> pending = new HashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Long> failed = new ConcurrentHashMap<>(); // path -> mtime at failure
+    private Thread watchThread;
+    private WatchService watchService;
+    private ExecutorService ingestExecutor;
+    private volatile Path folder;
+    private volatile boolean deleteSource;
+    private volatile IntConsumer ingestListener;
+    
+    private WatchFolderService() {}
+    
+    public static synchronized WatchFolderService getInstance() {
+        if (instance == null) {
+            instance = new WatchFolderService();
+        }
+        return instance;
+    }
+    
+    /**
+     * Apply the watch folder settings, restarting the watcher if the folder changed
+     */
+    public synchronized void configure(boolean enabled, String folderPath, boolean deleteSource) {
+        this.deleteSource = deleteSource;
+        
+        Path newFolder = enabled && folderPath != null && !folderPath.trim().isEmpty()
+                ? Paths.get(folderPath).toAbsolutePath().normalize() : null;
+        if (newFolder != null && newFolder.equals(folder) && watchThread != null && watchThread.isAlive()) {
+            return;
+        }
+        
+        stop();
+        if (newFolder == null) {
+            return;
+        }
+        
+        try {
+            Files.createDirectories(newFolder);
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            SecureErrorHandler.handleFileError(e);
+            return;
+        }
+        
+        folder = newFolder;
+        ingestExecutor = Executors.newFixedThreadPool(SecurityConfig.WATCH_INGEST_PARALLELISM, r -> {
+            Thread thread = new Thread(r, "watch-folder-ingest");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watchLoop(service, newFolder), "watch-folder");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+    
+    /**
+     * Called with the number of files imported by each finished batch
+     */
+    public void setIngestListener(IntConsumer ingestListener) {
+        this.ingestListener = ingestListener;
+    }
+    
+    /**
+     * Stop watching; batches already handed to the store pipeline finish
+     */
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Closing only wakes the watch thread
+            }
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        if (ingestExecutor != null) {
+            ingestExecutor.shutdown();
+            ingestExecutor = null;
+        }
+        folder = null;
+    }
+    
+    private void watchLoop(WatchService service, Path root) {
+        try {
+            // Files already waiting from before the watch started
+            registerTree(service, root);
+            
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.poll(SecurityConfig.WATCH_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    handleEvents(service, key);
+                    key = service.poll();
+                }
+                dispatchReadyFiles(root);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        } catch (Exception e) {
+            SecureErrorHandler.handleApplicationError(e);
+        }
+    }
+    
+    private void handleEvents(WatchService service, WatchKey key) throws IOException {
+        Path directory = (Path) key.watchable();
+        long now = System.nanoTime();
+        
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were dropped; the only way to catch up is one walk of the tree
+                registerTree(service, directory);
+                continue;
+            }
+            
+            Path path = directory.resolve((Path) event.context());
+            if (isIngested(path)) {
+                continue;
+            }
+            if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                // A new subfolder: watch it and pick up what was copied in before the watch
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    registerTree(service, path);
+                }
+            } else if (event.kind() != StandardWatchEventKinds.ENTRY_DELETE) {
+                track(path, now);
+            } else {
+                pending.remove(path);
+            }
+        }
+        key.reset();
+    }
+    
+    private void registerTree(WatchService service, Path start) throws IOException {
+        long now = System.nanoTime();
+        try (Stream<Path> paths = Files.walk(start)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (isIngested(path)) {
+                    continue;
+                }
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    path.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                } else if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+                    track(path, now);
+                }
+            }
+        }
+    }
+    
+    private boolean isIngested(Path path) {
+        Path root = folder;
+        return root == null || path.startsWith(root.resolve(INGESTED_DIRECTORY));
+    }
+    
+    private void track(Path path, long eventNanos) {
+        if (inFlight.contains(path)) {
+            return;
+        }
+        PendingFile file = pending.computeIfAbsent(path, p -> new PendingFile());
+        file.lastEventNanos = eventNanos;
+    }
+    
+    /**
+     * Hand every file that has settled to the store pipeline
+     */
+    private void dispatchReadyFiles(Path root) {
+        long now = System.nanoTime();
+        long debounceNanos = TimeUnit.MILLISECONDS.toNanos(SecurityConfig.WATCH_DEBOUNCE);
+        List<File> ready = new ArrayList<>();
+        
+        Iterator<Map.Entry<Path, PendingFile>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = entries.next();
+            Path path = entry.getKey();
+            PendingFile file = entry.getValue();
+            if (now - file.lastEventNanos < debounceNanos) {
+                continue;
+            }
+            
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                entries.remove(); // gone again
+                continue;
+            }
+            
+            // Stable once size and mtime match the previous check
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (size != file.size || modified != file.modified) {
+                file.size = size;
+                file.modified = modified;
+                file.lastEventNanos = now;
+                continue;
+            }
+            
+            entries.remove();
+            if (!FolderScanner.isImportable(path, attributes)) {
+                continue; // partial downloads, OS metadata and oversized files stay where they are
+            }
+            Long failedAt = failed.get(path);
+            if (failedAt != null && failedAt == modified) {
+                continue; // failed before and unchanged since
+            }
+            inFlight.add(path);
+            ready.add(path.toFile());
+            
+            if (ready.size() >= SecurityConfig.WATCH_BATCH_MAX_FILES) {
+                submit(root, ready);
+                ready = new ArrayList<>();
+            }
+        }
+        
+        if (!ready.isEmpty()) {
+            submit(root, ready);
+        }
+    }
+    
+    private void submit(Path root, List<File> batch) {
+        ExecutorService executor = ingestExecutor;
+        if (executor == null || executor.isShutdown()) {
+            batch.forEach(file -> inFlight.remove(file.toPath()));
+            return;
+        }
+        executor.execute(() -> ingest(root, batch));
+    }
+    
+    private void ingest(Path root, List<File> batch) {
+        int[] imported = {0};
+        try {
+            VaultService.getInstance().storeFiles(batch,
+                file -> "From watch folder: " + root.relativize(file.toPath()),
+                "watch-folder",
+                (file, vaultFile, error, completed, total) -> {
+                    Path path = file.toPath();
+                    if (error == null) {
+                        imported[0]++;
+                        failed.remove(path);
+                        disposeSource(root, path);
+                    } else {
+                        failed.put(path, file.lastModified());
+                    }
+                    inFlight.remove(path);
+                });
+        } catch (Exception e) {
+            SecureErrorHandler.handleApplicationError(e);
+        } finally {
+            batch.forEach(file -> inFlight.remove(file.toPath()));
+        }
+        
+        if (imported[0] > 0) {
+            System.out.println("Watch folder: imported " + imported[0] + " of " + batch.size() + " file(s)");
+            IntConsumer listener = ingestListener;
+            if (listener != null) {
+                listener.accept(imported[0]);
+            }
+        }
+    }
+    
+    /**
+     * Securely delete an imported source, or move it out of the watched tree
+     */
+    private void disposeSource(Path root, Path source) {
+        if (deleteSource) {
+            if (!SecurityUtil.secureDelete(source.toFile())) {
+                System.err.println("Could not delete imported file: " + source.getFileName());
+            }
+            return;
+        }
+        
+        try {
+            Path target = root.resolve(INGESTED_DIRECTORY).resolve(root.relativize(source));
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Could not move imported file " + source.getFileName() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * A file seen by the watcher that is not imported yet
+     */
+    private static class PendingFile {
+        private long lastEventNanos;
+        private long size = -1;
+        private long modified = -1;
+    }
+}
@@ -209,6 +209,10 @@ public class LoginWindow extends JFrame {
                             try {
                                 MainWindow mainWindow = new MainWindow(admin, password);
                                 mainWindow.setVisible(true);
+                            } catch (IllegalStateException e) {
+                                // Another process (e.g. the command line tool) holds the vault
+                                showError(e.getMessage());
+                                new LoginWindow().setVisible(true);
                             } catch (Exception e) {
                                 showError("Failed to open main window");
                                 SecureErrorHandler.handleApplicationError(e);
@@ -1,9 +1,14 @@
 package com.vault.ui;
 
 import com.vault.model.Admin;
+import com.vault.model.Preview;
 import com.vault.model.VaultFile;
+import com.vault.service.FolderScanner;
+import com.vault.service.ImportManifest;
+import com.vault.service.ServiceRegistry;
 import com.vault.service.VaultService;
-import com.vault.service.AutoUpdater;
+import com.vault.service.VaultServiceAsync;
+import com.vault.service.WatchFolderService;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -12,7 +17,10 @@ import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Main window for vault management with professional features
@@ -29,7 +37,18 @@ public class MainWindow extends JFrame {
     private JLabel spaceLabel;
     private JProgressBar spaceProgressBar;
     private JScrollPane scrollPane;
-    private SystemTrayManager trayManager;
+    private final ServiceRegistry services = ServiceRegistry.getInstance();
+    private final VaultServiceAsync vaultAsync = VaultServiceAsync.getInstance();
+    private JLabel previewLabel;
+    private SwingWorker<Preview, Void> previewWorker;
+    private final List<VaultFile> displayedFiles = new ArrayList<>();
+    
+    // Search-as-you-type state
+    private static final int SEARCH_DEBOUNCE_MS = 250;
+    private Timer searchDebounceTimer;
+    private SearchWorker searchWorker;
+    private String lastSearchTerm;
+    private List<VaultFile> lastSearchResults;
     
     public MainWindow(Admin admin, String password) {
         this.currentAdmin = admin;
@@ -43,9 +62,42 @@ public class MainWindow extends JFrame {
         setupEventHandlers();
         configureWindow();
         setupSystemTray();
-        refreshFileList();
-        updateStats();
-        updateSpaceInfo();
+        reloadVault();
+        
+        // Nothing below is needed to show the window, so it waits for the first frame
+        services.runAfterFirstPaint(this, vaultService::startBackgroundMaintenance);
+        services.runAfterFirstPaint(this, SettingsDialog::applyBackupSettings);
+        WatchFolderService.getInstance().setIngestListener(count -> SwingUtilities.invokeLater(this::reloadVault));
+        services.runAfterFirstPaint(this, SettingsDialog::applyWatchFolderSettings);
+        services.runAfterFirstPaint(this, this::scrubIntegrity);
+    }
+    
+    /**
+     * Verify stored blobs in the background and warn about any that are damaged
+     */
+    private void scrubIntegrity() {
+        try {
+            vaultService.scrubIntegrity();
+            List<VaultFile> damaged = vaultService.getFilesFailingIntegrity();
+            if (damaged.isEmpty()) {
+                return;
+            }
+            
+            StringBuilder message = new StringBuilder("The following files failed their integrity check " +
+                "and may no longer open correctly:\n\n");
+            for (int i = 0; i < damaged.size() && i < 10; i++) {
+                message.append("• ").append(damaged.get(i).getOriginalName()).append("\n");
+            }
+            if (damaged.size() > 10) {
+                message.append("...and ").append(damaged.size() - 10).append(" more\n");
+            }
+            message.append("\nRestore them from a backup if one is available.");
+            
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, message.toString(),
+                "Integrity Check", JOptionPane.WARNING_MESSAGE));
+        } catch (Exception e) {
+            System.err.println("Integrity scrub failed: " + e.getMessage());
+        }
     }
     
     private void initializeComponents() {
@@ -59,7 +111,7 @@ public class MainWindow extends JFrame {
         };
         
         fileTable = new JTable(tableModel);
-        fileTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        fileTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         fileTable.setRowHeight(25);
         fileTable.getTableHeader().setReorderingAllowed(false);
         fileTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
@@ -75,6 +127,10 @@ public class MainWindow extends JFrame {
         searchField = new JTextField();
         searchField.setToolTipText("Search files by name, description, or tags");
         
+        // Search once typing pauses instead of on every keystroke
+        searchDebounceTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> performSearch());
+        searchDebounceTimer.setRepeats(false);
+        
         // Status and stats labels
         statusLabel = new JLabel("Ready");
         statusLabel.setForeground(new Color(0, 150, 0));
@@ -89,6 +145,12 @@ public class MainWindow extends JFrame {
         spaceProgressBar.setStringPainted(true);
         spaceProgressBar.setString("Loading...");
         spaceProgressBar.setPreferredSize(new Dimension(200, 20));
+        
+        // Preview of the selected file
+        previewLabel = new JLabel("No preview", SwingConstants.CENTER);
+        previewLabel.setVerticalAlignment(SwingConstants.TOP);
+        previewLabel.setForeground(Color.LIGHT_GRAY);
+        previewLabel.setPreferredSize(new Dimension(220, 200));
     }
     
     private void setupLayout() {
@@ -119,8 +181,9 @@ public class MainWindow extends JFrame {
         
         JButton addButton = createToolbarButton("Add File/Folder", "Add files or folders to the vault");
         JButton openButton = createToolbarButton("Open/Play", "Open or play selected file");
-        JButton retrieveButton = createToolbarButton("Retrieve", "Retrieve selected file from vault");
-        JButton deleteButton = createToolbarButton("Delete", "Delete selected file from vault");
+        JButton retrieveButton = createToolbarButton("Retrieve", "Retrieve selected files from vault");
+        JButton deleteButton = createToolbarButton("Delete", "Delete selected files from vault");
+        JButton tagButton = createToolbarButton("Tag", "Replace the tags of selected files");
         JButton refreshButton = createToolbarButton("Refresh", "Refresh file list");
         JButton spaceButton = createToolbarButton("Space Info", "View detailed space usage information");
         
@@ -128,6 +191,7 @@ public class MainWindow extends JFrame {
         leftToolbar.add(openButton);
         leftToolbar.add(retrieveButton);
         leftToolbar.add(deleteButton);
+        leftToolbar.add(tagButton);
         leftToolbar.add(Box.createRigidArea(new Dimension(10, 0)));
         leftToolbar.add(refreshButton);
         leftToolbar.add(spaceButton);
@@ -183,6 +247,18 @@ public class MainWindow extends JFrame {
             Color.WHITE
         ));
         
+        // Preview panel next to the table
+        JPanel previewPanel = new JPanel(new BorderLayout());
+        previewPanel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(),
+            "Preview",
+            TitledBorder.LEFT,
+            TitledBorder.TOP,
+            new Font("Arial", Font.BOLD, 12),
+            Color.WHITE
+        ));
+        previewPanel.add(previewLabel, BorderLayout.CENTER);
+        
         // Bottom panel with status and space info
         JPanel bottomPanel = new JPanel(new BorderLayout());
         bottomPanel.setBackground(new Color(70, 70, 70));
@@ -209,10 +285,11 @@ public class MainWindow extends JFrame {
         
         add(northPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
+        add(previewPanel, BorderLayout.EAST);
         add(bottomPanel, BorderLayout.SOUTH);
         
         // Setup event handlers
-        setupButtonHandlers(addButton, openButton, retrieveButton, deleteButton, refreshButton, 
+        setupButtonHandlers(addButton, openButton, retrieveButton, deleteButton, tagButton, refreshButton, 
                           spaceButton, aboutButton, settingsButton, logoutButton, searchButton, clearButton);
     }
     
@@ -224,28 +301,43 @@ public class MainWindow extends JFrame {
     }
     
     private void setupButtonHandlers(JButton addButton, JButton openButton, JButton retrieveButton, 
-                                   JButton deleteButton, JButton refreshButton,
+                                   JButton deleteButton, JButton tagButton, JButton refreshButton,
                                    JButton spaceButton, JButton aboutButton, JButton settingsButton, JButton logoutButton, 
                                    JButton searchButton, JButton clearButton) {
         
         addButton.addActionListener(e -> showAddFileDialog());
         openButton.addActionListener(e -> openSelectedFile());
         retrieveButton.addActionListener(e -> retrieveSelectedFile());
-        deleteButton.addActionListener(e -> deleteSelectedFile());
-        refreshButton.addActionListener(e -> {
-            refreshFileList();
-            updateStats();
-            updateSpaceInfo();
-        });
+        deleteButton.addActionListener(e -> deleteSelectedFiles());
+        tagButton.addActionListener(e -> retagSelectedFiles());
+        refreshButton.addActionListener(e -> reloadVault());
         spaceButton.addActionListener(e -> showSpaceManagementDialog());
         aboutButton.addActionListener(e -> showAboutDialog());
         settingsButton.addActionListener(e -> showChangeCredentialsDialog());
         logoutButton.addActionListener(e -> logout());
-        searchButton.addActionListener(e -> performSearch());
+        searchButton.addActionListener(e -> searchNow());
         clearButton.addActionListener(e -> clearSearch());
         
         // Enter key for search
-        searchField.addActionListener(e -> performSearch());
+        searchField.addActionListener(e -> searchNow());
+        
+        // Search as you type
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounceTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                searchDebounceTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                // Attribute changes do not affect the query
+            }
+        });
     }
     
     private void setupEventHandlers() {
@@ -259,6 +351,13 @@ public class MainWindow extends JFrame {
             }
         });
         
+        // Show the cached preview of the selected file
+        fileTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelectedPreview();
+            }
+        });
+        
         // Window resize listener for dynamic adjustment
         addComponentListener(new java.awt.event.ComponentAdapter() {
             @Override
@@ -268,6 +367,57 @@ public class MainWindow extends JFrame {
         });
     }
     
+    /**
+     * Show the cached preview of the selected file in the side panel
+     */
+    private void showSelectedPreview() {
+        if (previewWorker != null) {
+            previewWorker.cancel(true);
+            previewWorker = null;
+        }
+        
+        List<VaultFile> selectedFiles = getSelectedVaultFiles();
+        previewLabel.setIcon(null);
+        if (selectedFiles.size() != 1) {
+            previewLabel.setText(selectedFiles.isEmpty() ? "No preview" : selectedFiles.size() + " files selected");
+            return;
+        }
+        previewLabel.setText("Loading preview...");
+        
+        VaultFile vaultFile = selectedFiles.get(0);
+        previewWorker = new SwingWorker<Preview, Void>() {
+            @Override
+            protected Preview doInBackground() throws Exception {
+                return vaultService.getPreview(vaultFile);
+            }
+            
+            @Override
+            protected void done() {
+                if (previewWorker != this || isCancelled()) {
+                    return;
+                }
+                
+                try {
+                    Preview preview = get();
+                    if (preview == null) {
+                        previewLabel.setText("No preview available");
+                    } else if (preview.isImage()) {
+                        previewLabel.setText(null);
+                        previewLabel.setIcon(new ImageIcon(preview.getData()));
+                    } else {
+                        String snippet = new String(preview.getData(), java.nio.charset.StandardCharsets.UTF_8)
+                                .replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                                .replace("\n", "<br>");
+                        previewLabel.setText("<html><div style='width:180px'>" + snippet + "</div></html>");
+                    }
+                } catch (Exception e) {
+                    previewLabel.setText("Preview unavailable");
+                }
+            }
+        };
+        previewWorker.execute();
+    }
+    
     /**
      * Adjust table column widths based on window size
      */
@@ -315,11 +465,16 @@ public class MainWindow extends JFrame {
     }
     
     /**
-     * Setup system tray integration
+     * Setup system tray integration; the tray icon is created after the
+     * first frame, or earlier if the window is minimized before that
      */
     private void setupSystemTray() {
-        trayManager = SystemTrayManager.getInstance();
-        trayManager.initialize(this, vaultService);
+        services.register(SystemTrayManager.class, () -> {
+            SystemTrayManager trayManager = SystemTrayManager.getInstance();
+            trayManager.initialize(this, vaultService);
+            return trayManager;
+        });
+        services.startAfterFirstPaint(this, SystemTrayManager.class);
         
         // Override window closing behavior for tray integration
         setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
@@ -328,7 +483,7 @@ public class MainWindow extends JFrame {
             public void windowClosing(WindowEvent e) {
                 if (SystemTray.isSupported() && 
                     SettingsDialog.getPreferences().getBoolean("minimize_to_tray", true)) {
-                    trayManager.minimizeToTray();
+                    services.get(SystemTrayManager.class).minimizeToTray();
                 } else {
                     exitApplication();
                 }
@@ -338,7 +493,7 @@ public class MainWindow extends JFrame {
             public void windowIconified(WindowEvent e) {
                 if (SystemTray.isSupported() && 
                     SettingsDialog.getPreferences().getBoolean("minimize_to_tray", true)) {
-                    trayManager.minimizeToTray();
+                    services.get(SystemTrayManager.class).minimizeToTray();
                 }
             }
         });
@@ -352,9 +507,7 @@ public class MainWindow extends JFrame {
             AddFileDialog dialog = new AddFileDialog(this, vaultService);
             dialog.setVisible(true);
             if (dialog.isConfirmed()) {
-                refreshFileList();
-                updateStats();
-                updateSpaceInfo();
+                reloadVault();
             }
         });
     }
@@ -382,13 +535,11 @@ public class MainWindow extends JFrame {
         );
         
         if (result == JOptionPane.YES_OPTION) {
-            // Clean up system tray
-            if (trayManager != null) {
-                trayManager.cleanup();
-            }
+            // Clean up system tray (only if it was ever started)
+            services.getIfStarted(SystemTrayManager.class).ifPresent(SystemTrayManager::cleanup);
             
             // Clean shutdown
-            vaultService.cleanup();
+            endSession();
             dispose();
             System.exit(0);
         }
@@ -446,25 +597,11 @@ public class MainWindow extends JFrame {
         if (result == JFileChooser.APPROVE_OPTION) {
             File selectedFolder = folderChooser.getSelectedFile();
             
-            // Get all files in the folder recursively
-            java.util.List<File> filesToAdd = new java.util.ArrayList<>();
-            collectFilesRecursively(selectedFolder, filesToAdd);
-            
-            if (filesToAdd.isEmpty()) {
-                JOptionPane.showMessageDialog(this, 
-                    "No files found in the selected folder.", 
-                    "Empty Folder", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-            
-            // Show confirmation dialog with file count
-            int fileCount = filesToAdd.size();
+            // The tree is scanned while it is imported, so there is no file count to confirm yet
             String message = String.format(
-                "Found %d file(s) in the selected folder.\n" +
-                "Do you want to add all files to the vault?\n\n" +
+                "Add all files in \"%s\" and its subfolders to the vault?\n\n" +
                 "Note: Large folders may take some time to process.",
-                fileCount
+                selectedFolder.getName()
             );
             
             int choice = JOptionPane.showConfirmDialog(
@@ -476,33 +613,17 @@ public class MainWindow extends JFrame {
             );
             
             if (choice == JOptionPane.YES_OPTION) {
-                addFolderToVault(selectedFolder, filesToAdd);
+                addFolderToVault(selectedFolder);
             }
         }
     }
     
-    private void collectFilesRecursively(File directory, java.util.List<File> fileList) {
-        if (directory == null || !directory.exists() || !directory.isDirectory()) {
-            return;
-        }
-        
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile()) {
-                    fileList.add(file);
-                } else if (file.isDirectory()) {
-                    collectFilesRecursively(file, fileList);
-                }
-            }
-        }
-    }
-    
-    private void addFolderToVault(File folder, java.util.List<File> files) {
+    private void addFolderToVault(File folder) {
         // Create progress dialog
-        JProgressBar progressBar = new JProgressBar(0, files.size());
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
         progressBar.setStringPainted(true);
-        progressBar.setString("Preparing...");
+        progressBar.setString("Scanning folder...");
         
         JDialog progressDialog = new JDialog(this, "Adding Folder to Vault", true);
         progressDialog.setLayout(new BorderLayout());
@@ -514,106 +635,169 @@ public class MainWindow extends JFrame {
         progressDialog.setSize(400, 120);
         progressDialog.setLocationRelativeTo(this);
         
-        // Create worker for background processing
-        FolderUploadWorker worker = new FolderUploadWorker(folder, files, progressBar, progressDialog);
+        // Run the upload in the background
+        FolderUpload upload = new FolderUpload(folder, progressBar, progressDialog);
         
         cancelButton.addActionListener(e -> {
-            worker.cancel(true);
+            upload.cancel();
             progressDialog.dispose();
         });
         
-        worker.execute();
+        upload.start();
         progressDialog.setVisible(true);
     }
     
-    // Inner class for folder upload worker
-    private class FolderUploadWorker extends SwingWorker<Void, String> {
+    // Folder upload on the vault's own pools, so it holds no Swing worker thread
+    private class FolderUpload {
         private final File folder;
-        private final java.util.List<File> files;
         private final JProgressBar progressBar;
         private final JDialog progressDialog;
-        private int successful = 0;
-        
-        public FolderUploadWorker(File folder, java.util.List<File> files, JProgressBar progressBar, JDialog progressDialog) {
+        private final AtomicBoolean progressQueued = new AtomicBoolean();
+        private final AtomicBoolean started = new AtomicBoolean(); // claimed by the task or by an early cancel
+        private volatile FolderScanner scanner;
+        private volatile int processed = 0;
+        private volatile int successful = 0;
+        private CompletableFuture<Void> future;
+        
+        public FolderUpload(File folder, JProgressBar progressBar, JDialog progressDialog) {
             this.folder = folder;
-            this.files = files;
             this.progressBar = progressBar;
             this.progressDialog = progressDialog;
         }
         
-        @Override
-        protected Void doInBackground() throws Exception {
-            int processed = 0;
+        public void start() {
+            future = vaultAsync.supplyCrypto(this::run);
+        }
+        
+        public void cancel() {
+            future.cancel(true);
+            if (started.compareAndSet(false, true)) {
+                done(null); // cancelled while queued; the task will never run
+            }
+        }
+        
+        /**
+         * Report from the task itself: a cancelled future completes at once,
+         * while the import is still finishing its current group
+         */
+        private Void run() {
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+            RuntimeException error = null;
+            try {
+                return importFolder();
+            } catch (RuntimeException e) {
+                error = e;
+                throw e;
+            } finally {
+                RuntimeException failure = error;
+                SwingUtilities.invokeLater(() -> done(failure));
+            }
+        }
+        
+        private Void importFolder() {
+            // Files an earlier run of this folder already stored are skipped during the scan
+            ImportManifest manifest = ImportManifest.open(folder);
+            boolean completed = false;
             
-            for (File file : files) {
-                if (isCancelled()) {
-                    break;
-                }
-                
-                try {
+            // Files are imported as the scanner finds them and committed in groups;
+            // space is checked per file as it is reserved
+            try (FolderScanner files = new FolderScanner(folder, manifest::isImported).start()) {
+                scanner = files;
+                vaultService.storeFiles(files, files::getDiscoveredCount, file -> {
                     // Create relative path for description
                     String relativePath = folder.toPath().relativize(file.toPath()).toString();
-                    String description = "From folder: " + folder.getName() + " (" + relativePath + ")";
-                    
-                    // Check if file can be stored (space validation)
-                    if (vaultService.canStoreFile(file)) {
-                        vaultService.storeFile(file, description, "folder-upload");
+                    return "From folder: " + folder.getName() + " (" + relativePath + ")";
+                }, "folder-upload", (file, vaultFile, error, done, total) -> {
+                    manifest.record(file, vaultFile, error);
+                    if (error == null) {
                         successful++;
-                    } else {
-                        System.err.println("Insufficient space for file: " + file.getName());
                     }
-                    
-                } catch (Exception e) {
-                    System.err.println("Failed to add file " + file.getName() + ": " + e.getMessage());
-                }
-                
-                processed++;
-                publish(String.format("Processing file %d of %d", processed, files.size()));
+                    processed = done;
+                    publishProgress();
+                });
+                completed = !Thread.currentThread().isInterrupted();
+            } finally {
+                manifest.finish(completed);
             }
             
             return null;
         }
         
-        @Override
-        protected void process(java.util.List<String> chunks) {
-            if (!chunks.isEmpty()) {
-                String message = chunks.get(chunks.size() - 1);
-                progressBar.setString(message);
-                // Update progress bar value based on the message
-                if (message.contains("Processing file")) {
-                    try {
-                        String[] parts = message.split(" ");
-                        int current = Integer.parseInt(parts[2]);
-                        progressBar.setValue(current);
-                    } catch (Exception e) {
-                        // Ignore parsing errors
-                    }
-                }
+        private void publishProgress() {
+            // At most one refresh waits on the EDT however fast files complete
+            if (progressQueued.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    progressQueued.set(false);
+                    updateProgress();
+                });
             }
         }
         
-        @Override
-        protected void done() {
+        private void updateProgress() {
+            FolderScanner scanner = this.scanner;
+            int current = processed;
+            int total = Math.max(current, scanner.getDiscoveredCount());
+            if (scanner.isFinished()) {
+                progressBar.setIndeterminate(false);
+                progressBar.setMaximum(total);
+                progressBar.setValue(current);
+                progressBar.setString(String.format("Processing file %d of %d", current, total));
+            } else {
+                progressBar.setString(String.format("Processing file %d of %d found so far", current, total));
+            }
+        }
+        
+        private void done(Throwable error) {
             progressDialog.dispose();
             
+            boolean cancelled = future.isCancelled();
+            FolderScanner scanner = this.scanner;
+            if (scanner == null) {
+                // Cancelled before it started, or the import manifest could not be opened
+                if (error != null && !cancelled) {
+                    showError("Folder upload failed: " + error.getMessage());
+                }
+                return;
+            }
+            
+            if (error != null && !cancelled) {
+                showError(String.format("Folder upload failed: %s\n\nAdded before the failure: %d of %d",
+                    error.getMessage(), successful, processed));
+                reloadVault();
+                return;
+            }
+            
+            if (!cancelled && processed == 0 && scanner.getSkippedCount() == 0
+                    && scanner.getAlreadyImportedCount() == 0) {
+                JOptionPane.showMessageDialog(MainWindow.this,
+                    "No files found in the selected folder.",
+                    "Empty Folder",
+                    JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            
             String resultMessage = String.format(
-                "Folder upload completed!\n\n" +
+                (cancelled ? "Folder upload cancelled.\n\n" : "Folder upload completed!\n\n") +
                 "Total files: %d\n" +
                 "Successfully added: %d\n" +
-                "Failed/Skipped: %d",
-                files.size(), successful, files.size() - successful
+                "Failed: %d\n" +
+                "Already in vault from an earlier run: %d\n" +
+                "Skipped (type or size): %d",
+                processed, successful, processed - successful,
+                scanner.getAlreadyImportedCount(), scanner.getSkippedCount()
             );
             
             JOptionPane.showMessageDialog(
                 MainWindow.this,
                 resultMessage,
-                "Upload Complete",
+                cancelled ? "Upload Cancelled" : "Upload Complete",
                 JOptionPane.INFORMATION_MESSAGE
             );
             
-            // Refresh the file list
-            refreshFileList();
-            updateSpaceInfo();
+            // Refresh the file list; the import has returned, so nothing is still being added
+            reloadVault();
         }
     }
     
@@ -625,45 +809,25 @@ public class MainWindow extends JFrame {
         
         setStatus("Adding file to vault...");
         
-        SwingWorker<VaultFile, Void> worker = new SwingWorker<VaultFile, Void>() {
-            @Override
-            protected VaultFile doInBackground() throws Exception {
-                return vaultService.storeFile(file, description, tags);
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    VaultFile vaultFile = get();
+        vaultAsync.storeAsync(file, description, tags).whenComplete((vaultFile, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (error == null) {
                     setStatus("File added successfully: " + vaultFile.getOriginalName());
-                    refreshFileList();
-                    updateStats();
-                    MainWindow.this.updateSpaceInfo();
-                } catch (Exception e) {
-                    setStatus("Failed to add file: " + e.getMessage());
-                    showError("Failed to add file: " + e.getMessage());
+                    reloadVault();
+                } else {
+                    setStatus("Failed to add file: " + error.getMessage());
+                    showError("Failed to add file: " + error.getMessage());
                 }
-            }
-        };
-        
-        worker.execute();
+            }));
     }
     
     private void retrieveSelectedFile() {
-        int selectedRow = fileTable.getSelectedRow();
-        if (selectedRow < 0) {
+        List<VaultFile> selectedFiles = getSelectedVaultFiles();
+        if (selectedFiles.isEmpty()) {
             showError("Please select a file to retrieve.");
             return;
         }
         
-        String fileName = (String) tableModel.getValueAt(selectedRow, 0);
-        VaultFile vaultFile = findVaultFileByName(fileName);
-        
-        if (vaultFile == null) {
-            showError("Selected file not found.");
-            return;
-        }
-        
         // Choose output directory
         JFileChooser dirChooser = new JFileChooser();
         dirChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
@@ -672,43 +836,89 @@ public class MainWindow extends JFrame {
         int result = dirChooser.showSaveDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             File outputDir = dirChooser.getSelectedFile();
-            retrieveFile(vaultFile, outputDir.getAbsolutePath());
+            if (selectedFiles.size() == 1) {
+                retrieveFile(selectedFiles.get(0), outputDir.getAbsolutePath());
+            } else {
+                retrieveFiles(selectedFiles, outputDir.getAbsolutePath());
+            }
         }
     }
     
     private void retrieveFile(VaultFile vaultFile, String outputDirectory) {
         setStatus("Retrieving file...");
         
-        SwingWorker<File, Void> worker = new SwingWorker<File, Void>() {
+        vaultAsync.retrieveAsync(vaultFile, outputDirectory).whenComplete((retrievedFile, error) ->
+            SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    setStatus("Failed to retrieve file: " + error.getMessage());
+                    showError("Failed to retrieve file: " + error.getMessage());
+                    return;
+                }
+                
+                setStatus("File retrieved successfully: " + retrievedFile.getName());
+                
+                int choice = JOptionPane.showConfirmDialog(
+                    MainWindow.this,
+                    "File retrieved to: " + retrievedFile.getAbsolutePath() + 
+                    "\n\nWould you like to open the containing folder?",
+                    "File Retrieved",
+                    JOptionPane.YES_NO_OPTION
+                );
+                
+                if (choice == JOptionPane.YES_OPTION) {
+                    try {
+                        Desktop.getDesktop().open(retrievedFile.getParentFile());
+                    } catch (Exception e) {
+                        // Ignore if can't open folder
+                    }
+                }
+            }));
+    }
+    
+    private void retrieveFiles(List<VaultFile> vaultFiles, String outputDirectory) {
+        setStatus("Retrieving " + vaultFiles.size() + " files...");
+        
+        SwingWorker<VaultService.ExportResult, Integer> worker = new SwingWorker<VaultService.ExportResult, Integer>() {
             @Override
-            protected File doInBackground() throws Exception {
-                return vaultService.retrieveFile(vaultFile, outputDirectory);
+            protected VaultService.ExportResult doInBackground() throws Exception {
+                return vaultService.exportFiles(vaultFiles, outputDirectory,
+                        (vaultFile, success, completed, total) -> publish(completed));
+            }
+            
+            @Override
+            protected void process(List<Integer> chunks) {
+                int completed = chunks.get(chunks.size() - 1);
+                setStatus("Retrieving files... " + completed + "/" + vaultFiles.size());
             }
             
             @Override
             protected void done() {
                 try {
-                    File retrievedFile = get();
-                    setStatus("File retrieved successfully: " + retrievedFile.getName());
+                    VaultService.ExportResult result = get();
+                    String message = "Retrieved " + result.getExportedCount() + " of " + vaultFiles.size()
+                            + " files to: " + outputDirectory;
+                    if (result.hasFailures()) {
+                        message += "\n\nFailed: " + String.join(", ", result.getFailedFiles());
+                    }
+                    setStatus("Retrieved " + result.getExportedCount() + " of " + vaultFiles.size() + " files");
                     
                     int choice = JOptionPane.showConfirmDialog(
                         MainWindow.this,
-                        "File retrieved to: " + retrievedFile.getAbsolutePath() + 
-                        "\n\nWould you like to open the containing folder?",
-                        "File Retrieved",
+                        message + "\n\nWould you like to open the containing folder?",
+                        "Files Retrieved",
                         JOptionPane.YES_NO_OPTION
                     );
                     
                     if (choice == JOptionPane.YES_OPTION) {
                         try {
-                            Desktop.getDesktop().open(retrievedFile.getParentFile());
+                            Desktop.getDesktop().open(new File(outputDirectory));
                         } catch (Exception e) {
                             // Ignore if can't open folder
                         }
                     }
                 } catch (Exception e) {
-                    setStatus("Failed to retrieve file: " + e.getMessage());
-                    showError("Failed to retrieve file: " + e.getMessage());
+                    setStatus("Failed to retrieve files: " + e.getMessage());
+                    showError("Failed to retrieve files: " + e.getMessage());
                 }
             }
         };
@@ -716,59 +926,52 @@ public class MainWindow extends JFrame {
         worker.execute();
     }
     
-    private void deleteSelectedFile() {
-        int selectedRow = fileTable.getSelectedRow();
-        if (selectedRow < 0) {
+    private void deleteSelectedFiles() {
+        List<VaultFile> selectedFiles = getSelectedVaultFiles();
+        if (selectedFiles.isEmpty()) {
             showError("Please select a file to delete.");
             return;
         }
         
-        String fileName = (String) tableModel.getValueAt(selectedRow, 0);
-        VaultFile vaultFile = findVaultFileByName(fileName);
-        
-        if (vaultFile == null) {
-            showError("Selected file not found.");
-            return;
-        }
-        
+        String target = selectedFiles.size() == 1
+                ? "'" + selectedFiles.get(0).getOriginalName() + "'"
+                : selectedFiles.size() + " files";
         int choice = JOptionPane.showConfirmDialog(
             this,
-            "Are you sure you want to permanently delete '" + fileName + "'?",
+            "Are you sure you want to permanently delete " + target + "?",
             "Confirm Deletion",
             JOptionPane.YES_NO_OPTION,
             JOptionPane.WARNING_MESSAGE
         );
         
         if (choice == JOptionPane.YES_OPTION) {
-            deleteFile(vaultFile);
+            deleteFiles(selectedFiles);
         }
     }
     
-    private void deleteFile(VaultFile vaultFile) {
-        setStatus("Deleting file...");
+    private void deleteFiles(List<VaultFile> vaultFiles) {
+        setStatus("Deleting " + vaultFiles.size() + " file(s)...");
         
-        SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
             @Override
-            protected Boolean doInBackground() throws Exception {
-                return vaultService.deleteFile(vaultFile);
+            protected Integer doInBackground() throws Exception {
+                return vaultService.deleteFiles(vaultFiles);
             }
             
             @Override
             protected void done() {
                 try {
-                    boolean success = get();
-                    if (success) {
-                        setStatus("File deleted successfully: " + vaultFile.getOriginalName());
-                        refreshFileList();
-                        updateStats();
-                        MainWindow.this.updateSpaceInfo();
+                    int deleted = get();
+                    if (deleted > 0) {
+                        setStatus("Deleted " + deleted + " file(s) successfully");
+                        reloadVault();
                     } else {
                         setStatus("Failed to delete file");
                         showError("Failed to delete file");
                     }
                 } catch (Exception e) {
-                    setStatus("Failed to delete file: " + e.getMessage());
-                    showError("Failed to delete file: " + e.getMessage());
+                    setStatus("Failed to delete files: " + e.getMessage());
+                    showError("Failed to delete files: " + e.getMessage());
                 }
             }
         };
@@ -776,30 +979,45 @@ public class MainWindow extends JFrame {
         worker.execute();
     }
     
-    private void performSearch() {
-        String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            refreshFileList();
+    private void retagSelectedFiles() {
+        List<VaultFile> selectedFiles = getSelectedVaultFiles();
+        if (selectedFiles.isEmpty()) {
+            showError("Please select files to tag.");
             return;
         }
         
-        setStatus("Searching...");
+        String currentTags = selectedFiles.get(0).getTags();
+        String tags = (String) JOptionPane.showInputDialog(
+            this,
+            "Tags for " + selectedFiles.size() + " selected file(s):",
+            "Tag Files",
+            JOptionPane.PLAIN_MESSAGE,
+            null,
+            null,
+            currentTags == null ? "" : currentTags
+        );
         
-        SwingWorker<List<VaultFile>, Void> worker = new SwingWorker<List<VaultFile>, Void>() {
+        if (tags == null) {
+            return;
+        }
+        
+        setStatus("Tagging " + selectedFiles.size() + " file(s)...");
+        
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
             @Override
-            protected List<VaultFile> doInBackground() throws Exception {
-                return vaultService.searchFiles(searchTerm);
+            protected Integer doInBackground() throws Exception {
+                return vaultService.retagFiles(selectedFiles, tags.trim());
             }
             
             @Override
             protected void done() {
                 try {
-                    List<VaultFile> files = get();
-                    updateFileTable(files);
-                    setStatus("Search completed. Found " + files.size() + " files.");
+                    int updated = get();
+                    setStatus("Tagged " + updated + " file(s)");
+                    refreshFileList();
                 } catch (Exception e) {
-                    setStatus("Search failed: " + e.getMessage());
-                    showError("Search failed: " + e.getMessage());
+                    setStatus("Failed to tag files: " + e.getMessage());
+                    showError("Failed to tag files: " + e.getMessage());
                 }
             }
         };
@@ -807,13 +1025,152 @@ public class MainWindow extends JFrame {
         worker.execute();
     }
     
+    private void searchNow() {
+        // An explicit search always goes back to the database
+        searchDebounceTimer.stop();
+        lastSearchTerm = null;
+        lastSearchResults = null;
+        performSearch();
+    }
+    
+    private void performSearch() {
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.equals(lastSearchTerm)) {
+            return;
+        }
+        
+        cancelSearch();
+        if (searchTerm.isEmpty()) {
+            refreshFileList();
+            return;
+        }
+        
+        // A query that extends the previous one can only narrow its results
+        if (lastSearchResults != null && canRefine(lastSearchTerm, searchTerm)) {
+            List<VaultFile> refined = new ArrayList<>();
+            for (VaultFile file : lastSearchResults) {
+                if (matchesSearch(file, searchTerm)) {
+                    refined.add(file);
+                }
+            }
+            
+            lastSearchTerm = searchTerm;
+            lastSearchResults = refined;
+            updateFileTable(refined);
+            setStatus("Search completed. Found " + refined.size() + " files.");
+            return;
+        }
+        
+        setStatus("Searching...");
+        lastSearchTerm = searchTerm;
+        lastSearchResults = null;
+        tableModel.setRowCount(0);
+        displayedFiles.clear();
+        
+        searchWorker = new SearchWorker(searchTerm);
+        searchWorker.execute();
+    }
+    
+    /**
+     * Streams matches from the database into the table as they are read
+     */
+    private class SearchWorker extends SwingWorker<List<VaultFile>, VaultFile> {
+        private final String searchTerm;
+        
+        public SearchWorker(String searchTerm) {
+            this.searchTerm = searchTerm;
+        }
+        
+        @Override
+        protected List<VaultFile> doInBackground() throws Exception {
+            List<VaultFile> results = new ArrayList<>();
+            vaultService.searchFiles(searchTerm, file -> {
+                if (isCancelled()) {
+                    return false;
+                }
+                results.add(file);
+                publish(file);
+                return true;
+            });
+            return results;
+        }
+        
+        @Override
+        protected void process(List<VaultFile> chunks) {
+            if (searchWorker != this) {
+                return;
+            }
+            appendFileRows(chunks);
+            setStatus("Searching... " + displayedFiles.size() + " found");
+        }
+        
+        @Override
+        protected void done() {
+            if (searchWorker != this) {
+                return;
+            }
+            searchWorker = null;
+            
+            try {
+                List<VaultFile> files = get();
+                lastSearchResults = files;
+                setStatus("Search completed. Found " + files.size() + " files.");
+            } catch (java.util.concurrent.CancellationException e) {
+                // Superseded by a newer query
+            } catch (Exception e) {
+                lastSearchTerm = null;
+                setStatus("Search failed: " + e.getMessage());
+                showError("Search failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void cancelSearch() {
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+            searchWorker = null;
+        }
+    }
+    
+    /**
+     * Whether results for the previous term can be filtered in memory. LIKE
+     * wildcards in either term would make plain substring matching diverge
+     * from the database query, so those always go back to SQLite.
+     */
+    private boolean canRefine(String previousTerm, String searchTerm) {
+        if (previousTerm == null || previousTerm.isEmpty()) {
+            return false;
+        }
+        if (searchTerm.contains("%") || searchTerm.contains("_")) {
+            return false;
+        }
+        return searchTerm.toLowerCase().contains(previousTerm.toLowerCase());
+    }
+    
+    /**
+     * In-memory equivalent of the name/tags/description LIKE query
+     */
+    private boolean matchesSearch(VaultFile file, String searchTerm) {
+        String term = searchTerm.toLowerCase();
+        return containsIgnoreCase(file.getOriginalName(), term)
+                || containsIgnoreCase(file.getTags(), term)
+                || containsIgnoreCase(file.getDescription(), term);
+    }
+    
+    private boolean containsIgnoreCase(String value, String lowerCaseTerm) {
+        return value != null && value.toLowerCase().contains(lowerCaseTerm);
+    }
+    
     private void clearSearch() {
         searchField.setText("");
+        // Clearing the field restarts the debounce timer; reload right away instead
+        searchDebounceTimer.stop();
         refreshFileList();
     }
     
     private void refreshFileList() {
         setStatus("Loading files...");
+        resetSearchCache();
         
         SwingWorker<List<VaultFile>, Void> worker = new SwingWorker<List<VaultFile>, Void>() {
             @Override
@@ -837,61 +1194,35 @@ public class MainWindow extends JFrame {
         worker.execute();
     }
     
-    private void updateFileTable(List<VaultFile> files) {
-        // Clear existing rows
-        tableModel.setRowCount(0);
+    /**
+     * Reload the file list, stats and space usage from one snapshot, so the
+     * file table is only read once
+     */
+    private void reloadVault() {
+        setStatus("Loading files...");
+        resetSearchCache();
         
-        // Add new rows
-        for (VaultFile file : files) {
-            Object[] row = {
-                file.getOriginalName(),
-                file.getFileType().toUpperCase(),
-                file.getFormattedSize(),
-                file.getDateAdded().toLocalDate().toString(),
-                file.getDescription()
-            };
-            tableModel.addRow(row);
-        }
-    }
-    
-    private void updateStats() {
-        SwingWorker<VaultService.VaultStats, Void> worker = new SwingWorker<VaultService.VaultStats, Void>() {
+        SwingWorker<VaultService.VaultSnapshot, Void> worker = new SwingWorker<VaultService.VaultSnapshot, Void>() {
             @Override
-            protected VaultService.VaultStats doInBackground() throws Exception {
-                return vaultService.getVaultStats();
+            protected VaultService.VaultSnapshot doInBackground() throws Exception {
+                return vaultService.getSnapshot();
             }
             
             @Override
             protected void done() {
                 try {
-                    VaultService.VaultStats stats = get();
-                    statsLabel.setText("Files: " + stats.getFileCount() + 
-                                     ", Total Size: " + stats.getFormattedTotalSize());
+                    VaultService.VaultSnapshot snapshot = get();
+                    updateFileTable(snapshot.getFiles());
+                    showStats(snapshot.getStats());
+                    updateSpaceDisplay(snapshot.getDiskStatus());
+                    setStatus("Files loaded successfully.");
                 } catch (Exception e) {
                     statsLabel.setText("Stats unavailable");
-                }
-            }
-        };
-        
-        worker.execute();
-    }
-    
-    private void updateSpaceInfo() {
-        SwingWorker<VaultService.DiskSpaceStatus, Void> worker = new SwingWorker<VaultService.DiskSpaceStatus, Void>() {
-            @Override
-            protected VaultService.DiskSpaceStatus doInBackground() throws Exception {
-                return vaultService.checkDiskSpace();
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    VaultService.DiskSpaceStatus diskStatus = get();
-                    updateSpaceDisplay(diskStatus);
-                } catch (Exception e) {
                     spaceLabel.setText("Space: Unavailable");
                     spaceProgressBar.setString("Error");
                     spaceProgressBar.setValue(0);
+                    setStatus("Failed to load files: " + e.getMessage());
+                    showError("Failed to load files: " + e.getMessage());
                 }
             }
         };
@@ -899,6 +1230,42 @@ public class MainWindow extends JFrame {
         worker.execute();
     }
     
+    private void resetSearchCache() {
+        // Any cached search results may be stale once the list is reloaded
+        cancelSearch();
+        lastSearchTerm = null;
+        lastSearchResults = null;
+    }
+    
+    private void updateFileTable(List<VaultFile> files) {
+        // Clear existing rows
+        tableModel.setRowCount(0);
+        displayedFiles.clear();
+        
+        appendFileRows(files);
+    }
+    
+    private void appendFileRows(List<VaultFile> files) {
+        displayedFiles.addAll(files);
+        
+        // Add new rows
+        for (VaultFile file : files) {
+            Object[] row = {
+                file.getOriginalName(),
+                file.getFileType().toUpperCase(),
+                file.getFormattedSize(),
+                file.getDateAdded().toLocalDate().toString(),
+                file.getDescription()
+            };
+            tableModel.addRow(row);
+        }
+    }
+    
+    private void showStats(VaultService.VaultStats stats) {
+        statsLabel.setText("Files: " + stats.getFileCount() + 
+                         ", Total Size: " + stats.getFormattedTotalSize());
+    }
+    
     private void updateSpaceDisplay(VaultService.DiskSpaceStatus diskStatus) {
         VaultService.SpaceInfo spaceInfo = diskStatus.getSpaceInfo();
         
@@ -933,8 +1300,8 @@ public class MainWindow extends JFrame {
             long estimatedSpace = vaultService.getEstimatedSpaceForFile(file.length());
             String estimatedSpaceStr = formatFileSize(estimatedSpace);
             
-            VaultService.DiskSpaceStatus diskStatus = vaultService.checkDiskSpace();
-            String availableSpaceStr = diskStatus.getFormattedFreeSpace();
+            // Excludes space already reserved by imports still in progress
+            String availableSpaceStr = formatFileSize(vaultService.getDiskSpaceMonitor().getAvailableBytes());
             
             String message = String.format(
                 "Insufficient disk space to store this file.\n\n" +
@@ -960,16 +1327,18 @@ public class MainWindow extends JFrame {
         return String.format("%.1f GB", size / (1024.0 * 1024.0 * 1024.0));
     }
     
-    private VaultFile findVaultFileByName(String fileName) {
-        try {
-            List<VaultFile> allFiles = vaultService.getAllFiles();
-            return allFiles.stream()
-                    .filter(f -> f.getOriginalName().equals(fileName))
-                    .findFirst()
-                    .orElse(null);
-        } catch (Exception e) {
-            return null;
+    /**
+     * Map the selected table rows back to the files they were built from
+     */
+    private List<VaultFile> getSelectedVaultFiles() {
+        List<VaultFile> selectedFiles = new ArrayList<>();
+        for (int row : fileTable.getSelectedRows()) {
+            int modelRow = fileTable.convertRowIndexToModel(row);
+            if (modelRow < displayedFiles.size()) {
+                selectedFiles.add(displayedFiles.get(modelRow));
+            }
         }
+        return selectedFiles;
     }
     
     private void logout() {
@@ -981,6 +1350,7 @@ public class MainWindow extends JFrame {
         );
         
         if (choice == JOptionPane.YES_OPTION) {
+            endSession();
             dispose();
             SwingUtilities.invokeLater(() -> {
                 LoginWindow loginWindow = new LoginWindow();
@@ -989,6 +1359,19 @@ public class MainWindow extends JFrame {
         }
     }
     
+    /**
+     * Stop background work that uses this session's key and wipe decrypted
+     * copies; shared by logout, exit and the tray lock
+     */
+    void endSession() {
+        // Nothing may be imported with this session's key after it ends
+        WatchFolderService.getInstance().stop();
+        WatchFolderService.getInstance().setIngestListener(null);
+        
+        // Wipe decrypted copies before anyone else can sit down at the session
+        vaultService.cleanup();
+    }
+    
     private void setStatus(String message) {
         statusLabel.setText(message);
         statusLabel.setForeground(new Color(0, 150, 0));
@@ -1052,56 +1435,24 @@ public class MainWindow extends JFrame {
     }
     
     private void openSelectedFile() {
-        int selectedRow = fileTable.getSelectedRow();
-        if (selectedRow < 0) {
+        List<VaultFile> selectedFiles = getSelectedVaultFiles();
+        if (selectedFiles.isEmpty()) {
             showError("Please select a file to open/play.");
             return;
         }
         
-        String fileName = (String) tableModel.getValueAt(selectedRow, 0);
-        VaultFile vaultFile = findVaultFileByName(fileName);
-        
-        if (vaultFile == null) {
-            showError("Selected file not found.");
+        VaultFile vaultFile = selectedFiles.get(0);
+        if (isStreamable(vaultFile)) {
+            streamSelectedFile(vaultFile);
             return;
         }
         
-        // Create a temporary file to open
         try {
-            // Create temp directory
-            java.nio.file.Path tempDir = java.nio.file.Paths.get(System.getProperty("java.io.tmpdir"), ".securevault_temp");
-            if (!java.nio.file.Files.exists(tempDir)) {
-                java.nio.file.Files.createDirectories(tempDir);
-            }
-            
-            // Create temp file with original extension
+            // Decrypted copies are cached for the session, so re-opening is instant
             String originalName = vaultFile.getOriginalName();
-            String extension = "";
-            int lastDot = originalName.lastIndexOf('.');
-            if (lastDot > 0) {
-                extension = originalName.substring(lastDot);
-            }
-            
-            java.nio.file.Path tempFile = java.nio.file.Files.createTempFile(tempDir, "vault_", extension);
-            File outputFile = tempFile.toFile();
+            File outputFile = vaultService.openFile(vaultFile);
             
-            // Set file to be deleted on exit for security
-            outputFile.deleteOnExit();
-            
-            // Retrieve and decrypt the file
-            File tempFileDir = tempFile.getParent().toFile();
-            File retrievedFile = vaultService.retrieveFile(vaultFile, tempFileDir.getAbsolutePath());
-            
-            if (retrievedFile != null && retrievedFile.exists()) {
-                // Rename to have correct extension if needed
-                if (!retrievedFile.getName().equals(tempFile.getFileName().toString())) {
-                    java.nio.file.Files.move(retrievedFile.toPath(), tempFile);
-                    outputFile = tempFile.toFile();
-                } else {
-                    outputFile = retrievedFile;
-                }
-                outputFile.deleteOnExit();
-                
+            if (outputFile != null && outputFile.exists()) {
                 // Open the file with system default application
                 if (java.awt.Desktop.isDesktopSupported()) {
                     java.awt.Desktop desktop = java.awt.Desktop.getDesktop();
@@ -1114,7 +1465,7 @@ public class MainWindow extends JFrame {
                         String message = String.format(
                             "File opened successfully!\\n\\n" +
                             "File: %s\\n" +
-                            "Note: This is a temporary copy that will be deleted when the application closes.",
+                            "Note: This is a temporary copy that will be wiped when you log out or close the application.",
                             originalName
                         );
                         
@@ -1134,4 +1485,41 @@ public class MainWindow extends JFrame {
             showError("Failed to open file: " + e.getMessage());
         }
     }
+    
+    private boolean isStreamable(VaultFile vaultFile) {
+        String type = vaultFile.getFileType() == null ? "" : vaultFile.getFileType().toLowerCase();
+        return java.util.Arrays.asList("mp4", "avi", "mkv", "mov", "wmv", "mp3", "wav", "flac", "aac").contains(type);
+    }
+    
+    /**
+     * Play audio and video through the loopback stream server instead of
+     * decrypting the whole file to disk first
+     */
+    private void streamSelectedFile(VaultFile vaultFile) {
+        try {
+            String url = vaultService.streamFile(vaultFile);
+            
+            if (Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)) {
+                Desktop.getDesktop().browse(new java.net.URI(url));
+            }
+            setStatus("Streaming: " + vaultFile.getOriginalName());
+            
+            JTextField urlField = new JTextField(url);
+            urlField.setEditable(false);
+            JOptionPane.showMessageDialog(
+                this,
+                new Object[] {
+                    "Streaming " + vaultFile.getOriginalName() + " from the vault.",
+                    "To use another player (e.g. VLC), open this local address:",
+                    urlField,
+                    "The link only works on this computer and stops working when you log out."
+                },
+                "Streaming Media",
+                JOptionPane.INFORMATION_MESSAGE
+            );
+        } catch (Exception e) {
+            setStatus("Failed to stream file: " + e.getMessage());
+            showError("Failed to stream file: " + e.getMessage());
+        }
+    }
 }
@@ -5,6 +5,8 @@
 package com.vault.ui;
 
 import com.vault.config.SecurityConfig;
+import com.vault.service.BackupService;
+import com.vault.service.WatchFolderService;
 import com.vault.util.SecureErrorHandler;
 
 import javax.swing.*;
@@ -23,6 +25,10 @@ public class SettingsDialog extends JDialog {
     private static final String PREF_AUTO_LOCK_TIME = "auto_lock_time";
     private static final String PREF_BACKUP_ENABLED = "backup_enabled";
     private static final String PREF_BACKUP_LOCATION = "backup_location";
+    private static final String PREF_BACKUP_INTERVAL = "backup_interval";
+    private static final String PREF_WATCH_ENABLED = "watch_enabled";
+    private static final String PREF_WATCH_FOLDER = "watch_folder";
+    private static final String PREF_WATCH_DELETE_SOURCE = "watch_delete_source";
     private static final String PREF_MINIMIZE_TO_TRAY = "minimize_to_tray";
     private static final String PREF_START_MINIMIZED = "start_minimized";
     private static final String PREF_DARK_THEME = "dark_theme";
@@ -40,6 +46,13 @@ public class SettingsDialog extends JDialog {
     private JTextField backupLocationField;
     private JButton browseBackupButton;
     private JSpinner backupIntervalSpinner;
+    private JButton backupNowButton;
+    
+    // Watch folder settings
+    private JCheckBox watchEnabledCheckBox;
+    private JTextField watchFolderField;
+    private JButton browseWatchButton;
+    private JCheckBox watchDeleteSourceCheckBox;
     
     // UI settings
     private JCheckBox minimizeToTrayCheckBox;
@@ -78,6 +91,13 @@ public class SettingsDialog extends JDialog {
         backupLocationField = new JTextField(20);
         browseBackupButton = new JButton("Browse...");
         backupIntervalSpinner = new JSpinner(new SpinnerNumberModel(24, 1, 168, 1));
+        backupNowButton = new JButton("Back Up Now");
+        
+        // Watch folder panel components
+        watchEnabledCheckBox = new JCheckBox("Automatically import files dropped into a folder");
+        watchFolderField = new JTextField(20);
+        browseWatchButton = new JButton("Browse...");
+        watchDeleteSourceCheckBox = new JCheckBox("Securely delete source files after import");
         
         // UI panel components
         minimizeToTrayCheckBox = new JCheckBox("Minimize to system tray");
@@ -115,6 +135,10 @@ public class SettingsDialog extends JDialog {
         JPanel backupPanel = createBackupPanel();
         tabbedPane.addTab("💾 Backup", backupPanel);
         
+        // Watch folder tab
+        JPanel watchPanel = createWatchFolderPanel();
+        tabbedPane.addTab("📥 Watch Folder", watchPanel);
+        
         // UI tab
         JPanel uiPanel = createUIPanel();
         tabbedPane.addTab("🎨 Interface", uiPanel);
@@ -202,6 +226,46 @@ public class SettingsDialog extends JDialog {
         gbc.gridx = 1;
         panel.add(backupIntervalSpinner, gbc);
         
+        gbc.gridx = 2;
+        panel.add(backupNowButton, gbc);
+        
+        return panel;
+    }
+    
+    private JPanel createWatchFolderPanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+        
+        // Watch enabled
+        gbc.gridx = 0; gbc.gridy = 0;
+        gbc.gridwidth = 3;
+        panel.add(watchEnabledCheckBox, gbc);
+        
+        // Watch folder location
+        gbc.gridy = 1;
+        gbc.gridwidth = 1;
+        panel.add(new JLabel("Watch Folder:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.weightx = 1.0;
+        panel.add(watchFolderField, gbc);
+        
+        gbc.gridx = 2;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0;
+        panel.add(browseWatchButton, gbc);
+        
+        // What happens to imported files
+        gbc.gridx = 0; gbc.gridy = 2;
+        gbc.gridwidth = 3;
+        panel.add(watchDeleteSourceCheckBox, gbc);
+        
+        gbc.gridy = 3;
+        panel.add(new JLabel("Imported files are moved to an \"Ingested\" subfolder unless deleted."), gbc);
+        
         return panel;
     }
     
@@ -329,7 +393,31 @@ public class SettingsDialog extends JDialog {
             backupLocationField.setEnabled(enabled);
             browseBackupButton.setEnabled(enabled);
             backupIntervalSpinner.setEnabled(enabled);
+            backupNowButton.setEnabled(enabled);
+        });
+        
+        backupNowButton.addActionListener(e -> {
+            saveSettings();
+            BackupService.getInstance().runNowAsync();
+        });
+        
+        browseWatchButton.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+            
+            if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+                watchFolderField.setText(chooser.getSelectedFile().getAbsolutePath());
+            }
         });
+        
+        watchEnabledCheckBox.addActionListener(e -> updateWatchFolderState());
+    }
+    
+    private void updateWatchFolderState() {
+        boolean enabled = watchEnabledCheckBox.isSelected();
+        watchFolderField.setEnabled(enabled);
+        browseWatchButton.setEnabled(enabled);
+        watchDeleteSourceCheckBox.setEnabled(enabled);
     }
     
     private void loadSettings() {
@@ -343,7 +431,12 @@ public class SettingsDialog extends JDialog {
         backupEnabledCheckBox.setSelected(prefs.getBoolean(PREF_BACKUP_ENABLED, false));
         backupLocationField.setText(prefs.get(PREF_BACKUP_LOCATION, 
             System.getProperty("user.home") + File.separator + "VaultBackups"));
-        backupIntervalSpinner.setValue(prefs.getInt("backup_interval", 24));
+        backupIntervalSpinner.setValue(prefs.getInt(PREF_BACKUP_INTERVAL, 24));
+        
+        // Watch folder settings
+        watchEnabledCheckBox.setSelected(prefs.getBoolean(PREF_WATCH_ENABLED, false));
+        watchFolderField.setText(prefs.get(PREF_WATCH_FOLDER, defaultWatchFolder()));
+        watchDeleteSourceCheckBox.setSelected(prefs.getBoolean(PREF_WATCH_DELETE_SOURCE, false));
         
         // UI settings
         minimizeToTrayCheckBox.setSelected(prefs.getBoolean(PREF_MINIMIZE_TO_TRAY, true));
@@ -360,6 +453,8 @@ public class SettingsDialog extends JDialog {
         backupLocationField.setEnabled(backupEnabled);
         browseBackupButton.setEnabled(backupEnabled);
         backupIntervalSpinner.setEnabled(backupEnabled);
+        backupNowButton.setEnabled(backupEnabled);
+        updateWatchFolderState();
     }
     
     private void saveSettings() {
@@ -372,7 +467,12 @@ public class SettingsDialog extends JDialog {
             // Backup settings
             prefs.putBoolean(PREF_BACKUP_ENABLED, backupEnabledCheckBox.isSelected());
             prefs.put(PREF_BACKUP_LOCATION, backupLocationField.getText());
-            prefs.putInt("backup_interval", (Integer) backupIntervalSpinner.getValue());
+            prefs.putInt(PREF_BACKUP_INTERVAL, (Integer) backupIntervalSpinner.getValue());
+            
+            // Watch folder settings
+            prefs.putBoolean(PREF_WATCH_ENABLED, watchEnabledCheckBox.isSelected());
+            prefs.put(PREF_WATCH_FOLDER, watchFolderField.getText());
+            prefs.putBoolean(PREF_WATCH_DELETE_SOURCE, watchDeleteSourceCheckBox.isSelected());
             
             // UI settings
             prefs.putBoolean(PREF_MINIMIZE_TO_TRAY, minimizeToTrayCheckBox.isSelected());
@@ -385,6 +485,8 @@ public class SettingsDialog extends JDialog {
             
             // Flush preferences
             prefs.flush();
+            applyBackupSettings();
+            applyWatchFolderSettings();
             
             JOptionPane.showMessageDialog(this,
                 "Settings saved successfully.\\nSome changes may require restart to take effect.",
@@ -423,4 +525,30 @@ public class SettingsDialog extends JDialog {
     public static Preferences getPreferences() {
         return Preferences.userNodeForPackage(SettingsDialog.class);
     }
+    
+    /**
+     * Schedule backups according to the saved settings
+     */
+    public static void applyBackupSettings() {
+        Preferences prefs = getPreferences();
+        BackupService.getInstance().configure(
+            prefs.getBoolean(PREF_BACKUP_ENABLED, false),
+            prefs.get(PREF_BACKUP_LOCATION, System.getProperty("user.home") + File.separator + "VaultBackups"),
+            prefs.getInt(PREF_BACKUP_INTERVAL, 24));
+    }
+    
+    /**
+     * Start or stop the watch folder according to the saved settings
+     */
+    public static void applyWatchFolderSettings() {
+        Preferences prefs = getPreferences();
+        WatchFolderService.getInstance().configure(
+            prefs.getBoolean(PREF_WATCH_ENABLED, false),
+            prefs.get(PREF_WATCH_FOLDER, defaultWatchFolder()),
+            prefs.getBoolean(PREF_WATCH_DELETE_SOURCE, false));
+    }
+    
+    private static String defaultWatchFolder() {
+        return System.getProperty("user.home") + File.separator + "VaultInbox";
+    }
 }
@@ -104,7 +104,7 @@ public class SpaceManagementDialog extends JDialog {
         JTextArea infoText = new JTextArea(4, 30);
         infoText.setText(
                 "Space Management Information:\n" +
-                "• Vault automatically encrypts files with ~20% overhead\n" +
+                "• Encryption adds at most 32 bytes per file (IV and padding)\n" +
                 "• Minimum space: Current usage + 100MB safety buffer\n" +
                 "• Recommended space: Current usage + 50% expansion room\n" +
                 "• Monitor this dialog to prevent storage issues");
@@ -188,11 +188,11 @@ public class SpaceManagementDialog extends JDialog {
             diskStatus.getFormattedUsableSpace(),
             diskStatus.getFormattedTotalSpace()));
         
-        // Update vault efficiency progress bar (encryption overhead)
+        // Update vault efficiency progress bar (exact encryption overhead)
         if (spaceInfo.getOriginalSize() > 0) {
             double efficiency = ((double) spaceInfo.getOriginalSize() / spaceInfo.getTotalUsedSpace()) * 100.0;
             vaultProgressBar.setValue((int) efficiency);
-            vaultProgressBar.setString(String.format("%.1f%% efficiency (%s original → %s encrypted)", 
+            vaultProgressBar.setString(String.format("%.2f%% efficiency (%s original → %s stored)", 
                 efficiency,
                 spaceInfo.getFormattedOriginalSize(),
                 spaceInfo.getFormattedUsedSpace()));
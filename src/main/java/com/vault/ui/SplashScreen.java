@@ -6,8 +6,6 @@ package com.vault.ui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 
 /**
  * Professional splash screen for application startup
@@ -19,14 +17,11 @@ public class SplashScreen extends JWindow {
     
     private JProgressBar progressBar;
     private JLabel statusLabel;
-    private Timer progressTimer;
-    private int progress = 0;
     
     public SplashScreen() {
         initializeComponents();
         setupLayout();
         centerOnScreen();
-        startProgress();
     }
     
     private void initializeComponents() {
@@ -143,59 +138,42 @@ public class SplashScreen extends JWindow {
         setLocation(x, y);
     }
     
-    private void startProgress() {
-        String[] loadingSteps = {
-            "Loading security modules...",
-            "Initializing encryption engine...",
-            "Setting up database connection...",
-            "Configuring user interface...",
-            "Validating system integrity...",
-            "Starting secure vault..."
-        };
-        
-        progressTimer = new Timer(300, new ActionListener() {
-            private int stepIndex = 0;
-            
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                progress += 2;
-                progressBar.setValue(progress);
-                
-                if (stepIndex < loadingSteps.length && progress >= (stepIndex + 1) * (PROGRESS_MAX / loadingSteps.length)) {
-                    statusLabel.setText(loadingSteps[stepIndex]);
-                    stepIndex++;
-                }
-                
-                if (progress >= PROGRESS_MAX) {
-                    progressTimer.stop();
-                    // Small delay before hiding splash
-                    Timer hideTimer = new Timer(500, e1 -> {
-                        setVisible(false);
-                        dispose();
-                    });
-                    hideTimer.setRepeats(false);
-                    hideTimer.start();
-                }
-            }
+    /**
+     * Report real startup progress; safe to call from any thread
+     */
+    public void setProgress(int percent, String status) {
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setValue(Math.min(percent, PROGRESS_MAX));
+            statusLabel.setText(status);
         });
-        
-        progressTimer.start();
     }
     
     /**
-     * Shows the splash screen and returns when loading is complete
+     * Hide the splash once startup has finished; safe to call from any thread
      */
-    public static void showSplash() {
+    public void close() {
         SwingUtilities.invokeLater(() -> {
-            SplashScreen splash = new SplashScreen();
-            splash.setVisible(true);
+            progressBar.setValue(PROGRESS_MAX);
+            setVisible(false);
+            dispose();
         });
-        
-        // Wait for splash to complete
+    }
+    
+    /**
+     * Shows the splash screen and returns it so startup can drive its progress
+     */
+    public static SplashScreen showSplash() {
+        SplashScreen[] splash = new SplashScreen[1];
         try {
-            Thread.sleep(3500); // Total splash duration
+            SwingUtilities.invokeAndWait(() -> {
+                splash[0] = new SplashScreen();
+                splash[0].setVisible(true);
+            });
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+        } catch (java.lang.reflect.InvocationTargetException e) {
+            System.err.println("Failed to show splash screen: " + e.getCause().getMessage());
         }
+        return splash[0];
     }
 }
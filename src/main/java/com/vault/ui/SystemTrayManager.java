@@ -21,29 +21,48 @@ public class SystemTrayManager {
     private TrayIcon trayIcon;
     private MainWindow mainWindow;
     private VaultService vaultService;
+    private Boolean traySupported;
+    private Image trayImage;
     
     private SystemTrayManager() {
         // Private constructor for singleton
     }
     
-    public static SystemTrayManager getInstance() {
+    public static synchronized SystemTrayManager getInstance() {
         if (instance == null) {
             instance = new SystemTrayManager();
         }
         return instance;
     }
     
+    /**
+     * Load the native tray support and build the icon ahead of time, so
+     * initialize() is cheap once the main window exists. Called during startup.
+     */
+    public synchronized void preload() {
+        if (traySupported != null) {
+            return;
+        }
+        
+        traySupported = SystemTray.isSupported();
+        if (traySupported) {
+            SystemTray.getSystemTray();
+            trayImage = createTrayIcon();
+        }
+    }
+    
     public void initialize(MainWindow mainWindow, VaultService vaultService) {
         this.mainWindow = mainWindow;
         this.vaultService = vaultService;
         
-        if (!SystemTray.isSupported()) {
+        preload();
+        if (!traySupported) {
             System.out.println("System tray is not supported on this platform");
             return;
         }
         
         SystemTray tray = SystemTray.getSystemTray();
-        Image image = createTrayIcon();
+        Image image = trayImage;
         
         // Create popup menu
         PopupMenu popup = createPopupMenu();
@@ -203,6 +222,8 @@ public class SystemTrayManager {
     private void lockVault() {
         SwingUtilities.invokeLater(() -> {
             if (mainWindow != null) {
+                // Same teardown as logout: stop the watch folder and wipe decrypted copies
+                mainWindow.endSession();
                 mainWindow.dispose();
                 showTrayNotification("Vault Locked", 
                     "Vault has been locked for security", 
@@ -253,6 +274,9 @@ public class SystemTrayManager {
             if (trayIcon != null) {
                 SystemTray.getSystemTray().remove(trayIcon);
             }
+            if (vaultService != null) {
+                vaultService.cleanup();
+            }
             System.exit(0);
         }
     }
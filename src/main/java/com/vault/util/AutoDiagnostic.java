@@ -3,8 +3,6 @@ package com.vault.util;
 import com.vault.model.Admin;
 
 import java.io.File;
-import java.nio.file.Files;
-import java.util.List;
 
 /**
  * Automated diagnostic for the specific problematic file
@@ -23,7 +21,7 @@ public class AutoDiagnostic {
         System.out.println();
         
         try {
-            File problemFile = new File(FILES_DIR, PROBLEM_FILE);
+            File problemFile = BlobLayout.locate(FILES_DIR, PROBLEM_FILE);
             if (!problemFile.exists()) {
                 System.out.println("Problem file not found: " + problemFile.getAbsolutePath());
                 return;
@@ -34,11 +32,6 @@ public class AutoDiagnostic {
             System.out.println("Path: " + problemFile.getAbsolutePath());
             System.out.println();
             
-            // Read encrypted data
-            byte[] encryptedData = Files.readAllBytes(problemFile.toPath());
-            System.out.println("Successfully read " + encryptedData.length + " bytes");
-            System.out.println();
-            
             // Extended list of passwords to try
             String[] passwords = {
                 // Common passwords
@@ -82,9 +75,6 @@ public class AutoDiagnostic {
                 "admin", "Lintshiwe", "lintshiwe", "user", "vault", "root"
             };
             
-            boolean recovered = false;
-            int attempts = 0;
-            
             // Get database admins first
             try {
                 com.vault.util.DatabaseManager dbManager = com.vault.util.DatabaseManager.getInstance();
@@ -98,34 +88,22 @@ public class AutoDiagnostic {
                 System.out.println("Error reading database: " + e.getMessage());
             }
             
-            // Try all combinations
-            System.out.println("Testing password combinations...");
-            for (String username : usernames) {
-                for (String password : passwords) {
-                    attempts++;
-                    System.out.print("Attempt " + attempts + ": " + username + "/" + password + " ... ");
-                    
-                    if (tryDecrypt(encryptedData, username, password)) {
-                        System.out.println("✓ SUCCESS!");
-                        System.out.println();
-                        System.out.println("===== RECOVERY SUCCESSFUL =====");
-                        System.out.println("Username: " + username);
-                        System.out.println("Password: " + password);
-                        System.out.println("The file can be decrypted with these credentials.");
-                        System.out.println("===============================");
-                        recovered = true;
-                        break;
-                    } else {
-                        System.out.println("Failed");
-                    }
-                }
-                if (recovered) break;
-            }
+            // Try all combinations; only the last cipher block of the file is read per key
+            RecoveryEngine engine = new RecoveryEngine(RecoveryEngine.combine(passwords, usernames));
+            System.out.println("Testing " + engine.getCandidateCount() + " password combinations...");
+            RecoveryEngine.Match match = engine.findKey(problemFile, -1);
             
-            if (!recovered) {
+            if (match != null) {
+                System.out.println();
+                System.out.println("===== RECOVERY SUCCESSFUL =====");
+                System.out.println("Username: " + match.getCandidate().getSalt());
+                System.out.println("Password: " + match.getCandidate().getPassword());
+                System.out.println("The file can be decrypted with these credentials.");
+                System.out.println("===============================");
+            } else {
                 System.out.println();
                 System.out.println("===== DIAGNOSTIC COMPLETE =====");
-                System.out.println("Tested " + attempts + " password combinations");
+                System.out.println("Tested " + engine.getCandidateCount() + " password combinations");
                 System.out.println("❌ No working password found");
                 System.out.println();
                 System.out.println("Possible causes:");
@@ -147,14 +125,4 @@ public class AutoDiagnostic {
             System.out.println("Error during diagnostic: " + SecureErrorHandler.handleUnexpectedError(e));
         }
     }
-    
-    private static boolean tryDecrypt(byte[] encryptedData, String username, String password) {
-        try {
-            javax.crypto.SecretKey key = com.vault.util.SecurityUtil.generateKeyFromPassword(password, username);
-            byte[] decryptedData = com.vault.util.SecurityUtil.decrypt(encryptedData, key);
-            return decryptedData != null && decryptedData.length > 0;
-        } catch (Exception e) {
-            return false;
-        }
-    }
 }
@@ -0,0 +1,112 @@
+package com.vault.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fan-out directory layout for encrypted blobs.
+ *
+ * New blobs are stored under two levels of hex prefix directories
+ * (e.g. files/3f/a2/NAME.enc) so no single directory grows past a few
+ * hundred entries. Older vaults keep flat paths until BlobMigrator moves them.
+ */
+public class BlobLayout {
+    
+    public static final String BLOB_EXTENSION = ".enc";
+    
+    private BlobLayout() {}
+    
+    /**
+     * Get the sharded path for a blob name inside the vault directory
+     */
+    public static String shardedPath(String vaultDirectory, String blobName) {
+        String prefix = shardPrefix(blobName);
+        return vaultDirectory + File.separator + prefix.substring(0, 2)
+                + File.separator + prefix.substring(2, 4)
+                + File.separator + blobName;
+    }
+    
+    /**
+     * Check whether an encrypted path already uses the sharded layout
+     */
+    public static boolean isSharded(String vaultDirectory, String encryptedPath) {
+        if (encryptedPath == null) {
+            return false;
+        }
+        File blob = new File(encryptedPath);
+        return !new File(vaultDirectory).getAbsoluteFile().equals(blob.getAbsoluteFile().getParentFile());
+    }
+    
+    /**
+     * Locate a blob by name, preferring the sharded location over the legacy flat one
+     */
+    public static File locate(String vaultDirectory, String blobName) {
+        File sharded = new File(shardedPath(vaultDirectory, blobName));
+        if (sharded.exists()) {
+            return sharded;
+        }
+        return new File(vaultDirectory, blobName);
+    }
+    
+    /**
+     * Find the blob a stored encrypted path refers to, following it into the
+     * sharded layout if the migrator moved it since the path was recorded
+     */
+    public static File resolve(String vaultDirectory, String encryptedPath) {
+        File blob = new File(encryptedPath);
+        return blob.exists() ? blob : locate(vaultDirectory, blob.getName());
+    }
+    
+    /**
+     * List every blob in the vault directory, both flat and sharded
+     */
+    public static List<File> listBlobs(String vaultDirectory) {
+        List<File> blobs = new ArrayList<>();
+        Path root = Paths.get(vaultDirectory);
+        if (!Files.isDirectory(root)) {
+            return blobs;
+        }
+        
+        // Depth 3 covers files/<aa>/<bb>/NAME.enc as well as legacy files/NAME.enc
+        try (Stream<Path> paths = Files.walk(root, 3)) {
+            paths.filter(p -> p.getFileName().toString().endsWith(BLOB_EXTENSION))
+                 .filter(Files::isRegularFile)
+                 .forEach(p -> blobs.add(p.toFile()));
+        } catch (IOException e) {
+            SecureErrorHandler.handleFileError(e);
+        }
+        
+        return blobs;
+    }
+    
+    /**
+     * Two bytes of hex derived from the blob name. Secure file names are
+     * Base64 encoded random bytes, so decoding them gives an even spread.
+     */
+    private static String shardPrefix(String blobName) {
+        String baseName = blobName.endsWith(BLOB_EXTENSION)
+                ? blobName.substring(0, blobName.length() - BLOB_EXTENSION.length())
+                : blobName;
+        
+        int value;
+        try {
+            byte[] decoded = Base64.getUrlDecoder().decode(baseName);
+            if (decoded.length < 2) {
+                throw new IllegalArgumentException("Blob name too short");
+            }
+            value = ((decoded[0] & 0xFF) << 8) | (decoded[1] & 0xFF);
+        } catch (IllegalArgumentException e) {
+            // Non-random names still need a stable shard
+            value = baseName.hashCode() & 0xFFFF;
+        }
+        
+        return String.format("%04x", value);
+    }
+}
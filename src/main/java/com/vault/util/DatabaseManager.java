@@ -1,13 +1,22 @@
 package com.vault.util;
 
 import com.vault.model.Admin;
+import com.vault.model.ImportEntry;
+import com.vault.model.IntegrityCheck;
+import com.vault.model.PackRecord;
+import com.vault.model.Preview;
 import com.vault.model.VaultFile;
 import com.vault.config.SecurityConfig;
 
+import java.io.File;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
 
 /**
  * Database manager for SQLite operations
@@ -17,6 +26,15 @@ public class DatabaseManager {
     private static DatabaseManager instance;
     private static final String DB_URL = "jdbc:sqlite:vault.db?journal_mode=WAL&busy_timeout=30000";
     
+    // Blob operations recorded in pending_intents until they are committed
+    public static final String INTENT_STORE = "store";
+    public static final String INTENT_DELETE = "delete";
+    
+    // Folder import session states
+    public static final String IMPORT_RUNNING = "running";
+    public static final String IMPORT_COMPLETED = "completed";
+    public static final String IMPORT_CANCELLED = "cancelled";
+    
     private DatabaseManager() {}
     
     public static synchronized DatabaseManager getInstance() {
@@ -62,13 +80,153 @@ public class DatabaseManager {
                 file_size INTEGER,
                 date_added TEXT NOT NULL,
                 description TEXT,
-                tags TEXT
+                tags TEXT,
+                blob_version INTEGER NOT NULL DEFAULT 1,
+                stored_size INTEGER,
+                checksum INTEGER
+            )
+        """;
+        
+        // Create pack_records table (offset index for small blobs stored in pack segments)
+        String packRecordsTable = """
+            CREATE TABLE IF NOT EXISTS pack_records (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                segment TEXT NOT NULL,
+                record_offset INTEGER NOT NULL,
+                record_length INTEGER NOT NULL,
+                deleted BOOLEAN DEFAULT 0
+            )
+        """;
+        
+        // Create previews table (encrypted thumbnails and text snippets, LRU by last_access)
+        String previewsTable = """
+            CREATE TABLE IF NOT EXISTS previews (
+                file_id INTEGER PRIMARY KEY,
+                kind TEXT NOT NULL,
+                data BLOB NOT NULL,
+                last_access INTEGER NOT NULL
+            )
+        """;
+        
+        // Create integrity_checks table (latest scrub result per file)
+        String integrityChecksTable = """
+            CREATE TABLE IF NOT EXISTS integrity_checks (
+                file_id INTEGER PRIMARY KEY,
+                status TEXT NOT NULL,
+                checked_at INTEGER NOT NULL,
+                detail TEXT
+            )
+        """;
+        
+        // Create pending_intents table (blob writes and deletes not yet committed)
+        String pendingIntentsTable = """
+            CREATE TABLE IF NOT EXISTS pending_intents (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                operation TEXT NOT NULL,
+                blob_path TEXT NOT NULL,
+                created_at INTEGER NOT NULL
             )
         """;
         
+        // Create import_sessions table (one manifest per imported source folder)
+        String importSessionsTable = """
+            CREATE TABLE IF NOT EXISTS import_sessions (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                source_path TEXT NOT NULL UNIQUE,
+                status TEXT NOT NULL,
+                started_at INTEGER NOT NULL,
+                updated_at INTEGER NOT NULL
+            )
+        """;
+        
+        // Create import_entries table (source files already handled by a session)
+        String importEntriesTable = """
+            CREATE TABLE IF NOT EXISTS import_entries (
+                session_id INTEGER NOT NULL,
+                source_path TEXT NOT NULL,
+                file_size INTEGER NOT NULL,
+                modified_at INTEGER NOT NULL,
+                status TEXT NOT NULL,
+                vault_file_id INTEGER,
+                PRIMARY KEY (session_id, source_path)
+            )
+        """;
+        
+        // Previews go with their file on every delete path
+        String previewsCleanupTrigger = """
+            CREATE TRIGGER IF NOT EXISTS trg_vault_files_delete_preview
+            AFTER DELETE ON vault_files
+            BEGIN
+                DELETE FROM previews WHERE file_id = OLD.id;
+            END
+        """;
+        
+        String integrityCleanupTrigger = """
+            CREATE TRIGGER IF NOT EXISTS trg_vault_files_delete_integrity
+            AFTER DELETE ON vault_files
+            BEGIN
+                DELETE FROM integrity_checks WHERE file_id = OLD.id;
+            END
+        """;
+        
+        // A file deleted from the vault is imported again by the next run
+        String importCleanupTrigger = """
+            CREATE TRIGGER IF NOT EXISTS trg_vault_files_delete_import
+            AFTER DELETE ON vault_files
+            BEGIN
+                DELETE FROM import_entries WHERE vault_file_id = OLD.id;
+            END
+        """;
+        
         try (Statement stmt = conn.createStatement()) {
             stmt.execute(adminTable);
             stmt.execute(filesTable);
+            stmt.execute(packRecordsTable);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_pack_records_segment ON pack_records(segment, deleted)");
+            stmt.execute(previewsTable);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_previews_last_access ON previews(last_access)");
+            stmt.execute(previewsCleanupTrigger);
+            stmt.execute(integrityChecksTable);
+            stmt.execute(pendingIntentsTable);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_pending_intents_path ON pending_intents(operation, blob_path)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_integrity_checks_status ON integrity_checks(status)");
+            stmt.execute(importSessionsTable);
+            stmt.execute(importEntriesTable);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_import_entries_vault_file ON import_entries(vault_file_id)");
+            stmt.execute(importCleanupTrigger);
+        }
+        
+        // Columns added after the first release
+        addColumnIfMissing(conn, "vault_files", "blob_version", "INTEGER NOT NULL DEFAULT 1");
+        addColumnIfMissing(conn, "vault_files", "stored_size", "INTEGER");
+        addColumnIfMissing(conn, "vault_files", "checksum", "INTEGER");
+        
+        // Blobs are written uncompressed as IV + padded ciphertext, so the
+        // stored size of older rows follows exactly from the plaintext size
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                UPDATE vault_files SET stored_size = 16 + (COALESCE(file_size, 0) / 16 + 1) * 16
+                WHERE stored_size IS NULL
+            """);
+            stmt.execute(integrityCleanupTrigger);
+        }
+    }
+    
+    /**
+     * Add a column to an existing table created by an older version
+     */
+    private void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
         }
     }
     
@@ -185,8 +343,8 @@ public class DatabaseManager {
     public int saveVaultFile(VaultFile file) {
         String sql = """
             INSERT INTO vault_files (original_name, encrypted_path, file_type, file_size, 
-                                   date_added, description, tags)
-            VALUES (?, ?, ?, ?, ?, ?, ?)
+                                   date_added, description, tags, stored_size, checksum)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
         """;
         
         try (Connection conn = DriverManager.getConnection(DB_URL);
@@ -199,6 +357,12 @@ public class DatabaseManager {
             stmt.setString(5, file.getDateAdded().toString());
             stmt.setString(6, file.getDescription());
             stmt.setString(7, file.getTags());
+            stmt.setLong(8, file.getStoredSize());
+            if (file.getChecksum() != null) {
+                stmt.setLong(9, file.getChecksum());
+            } else {
+                stmt.setNull(9, Types.INTEGER);
+            }
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
@@ -215,6 +379,190 @@ public class DatabaseManager {
         return -1;
     }
     
+    /**
+     * Insert the rows of a group of stored files and clear their store intents
+     * in one transaction; sets the generated id on each file. packRecords holds
+     * the pack record of each file stored in a pack segment (null for the
+     * others); those are indexed in the same transaction and the file's
+     * encrypted path is set from the new record id with packPath.
+     */
+    public void saveVaultFiles(List<VaultFile> files, List<PackRecord> packRecords, LongFunction<String> packPath) {
+        String insertSql = """
+            INSERT INTO vault_files (original_name, encrypted_path, file_type, file_size, 
+                                   date_added, description, tags, stored_size, checksum)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+        String packSql = "INSERT INTO pack_records (segment, record_offset, record_length, deleted) VALUES (?, ?, ?, 0)";
+        String clearSql = "DELETE FROM pending_intents WHERE operation = ? AND blob_path = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement packStmt = conn.prepareStatement(packSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement clearStmt = conn.prepareStatement(clearSql)) {
+                for (int i = 0; i < files.size(); i++) {
+                    VaultFile file = files.get(i);
+                    PackRecord record = packRecords.get(i);
+                    if (record != null) {
+                        packStmt.setString(1, record.getSegment());
+                        packStmt.setLong(2, record.getOffset());
+                        packStmt.setInt(3, record.getLength());
+                        packStmt.executeUpdate();
+                        
+                        try (ResultSet rs = packStmt.getGeneratedKeys()) {
+                            if (rs.next()) {
+                                record.setId(rs.getLong(1));
+                            }
+                        }
+                        file.setEncryptedPath(packPath.apply(record.getId()));
+                    }
+                    
+                    insertStmt.setString(1, file.getOriginalName());
+                    insertStmt.setString(2, file.getEncryptedPath());
+                    insertStmt.setString(3, file.getFileType());
+                    insertStmt.setLong(4, file.getFileSize());
+                    insertStmt.setString(5, file.getDateAdded().toString());
+                    insertStmt.setString(6, file.getDescription());
+                    insertStmt.setString(7, file.getTags());
+                    insertStmt.setLong(8, file.getStoredSize());
+                    if (file.getChecksum() != null) {
+                        insertStmt.setLong(9, file.getChecksum());
+                    } else {
+                        insertStmt.setNull(9, Types.INTEGER);
+                    }
+                    insertStmt.executeUpdate();
+                    
+                    try (ResultSet rs = insertStmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            file.setId(rs.getLong(1));
+                        }
+                    }
+                    
+                    clearStmt.setString(1, INTENT_STORE);
+                    clearStmt.setString(2, file.getEncryptedPath());
+                    clearStmt.addBatch();
+                }
+                
+                clearStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save vault files", e);
+        }
+    }
+    
+    /**
+     * Record blob operations that are about to touch the filesystem
+     */
+    public void logIntents(String operation, List<String> blobPaths) {
+        if (blobPaths.isEmpty()) {
+            return;
+        }
+        
+        String sql = "INSERT INTO pending_intents (operation, blob_path, created_at) VALUES (?, ?, ?)";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                long now = System.currentTimeMillis();
+                for (String blobPath : blobPaths) {
+                    stmt.setString(1, operation);
+                    stmt.setString(2, blobPath);
+                    stmt.setLong(3, now);
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to log blob intents", e);
+        }
+    }
+    
+    /**
+     * Forget blob operations that have been completed or rolled back
+     */
+    public void clearIntents(String operation, List<String> blobPaths) {
+        if (blobPaths.isEmpty()) {
+            return;
+        }
+        
+        String sql = "DELETE FROM pending_intents WHERE operation = ? AND blob_path = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (String blobPath : blobPaths) {
+                    stmt.setString(1, operation);
+                    stmt.setString(2, blobPath);
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to clear blob intents", e);
+        }
+    }
+    
+    /**
+     * Get the blob paths of operations left unfinished by an earlier session
+     */
+    public List<String> getPendingIntents(String operation) {
+        List<String> blobPaths = new ArrayList<>();
+        String sql = "SELECT blob_path FROM pending_intents WHERE operation = ? ORDER BY id";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, operation);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                blobPaths.add(rs.getString("blob_path"));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get pending intents", e);
+        }
+        
+        return blobPaths;
+    }
+    
+    /**
+     * Check whether any vault file row points at the given blob path
+     */
+    public boolean isBlobReferenced(String blobPath) {
+        String sql = "SELECT 1 FROM vault_files WHERE encrypted_path = ? LIMIT 1";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, blobPath);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next();
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to look up blob reference", e);
+        }
+    }
+    
     /**
      * Get all vault files
      */
@@ -236,6 +584,9 @@ public class DatabaseManager {
                 file.setDateAdded(LocalDateTime.parse(rs.getString("date_added")));
                 file.setDescription(rs.getString("description"));
                 file.setTags(rs.getString("tags"));
+                file.setBlobVersion(rs.getInt("blob_version"));
+                file.setStoredSize(rs.getLong("stored_size"));
+                file.setChecksum(readChecksum(rs));
                 
                 files.add(file);
             }
@@ -247,6 +598,77 @@ public class DatabaseManager {
         return files;
     }
     
+    /**
+     * Write a consistent copy of the whole database to a new file
+     */
+    public void snapshotTo(File target) {
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement("VACUUM INTO ?")) {
+            
+            stmt.setString(1, target.getAbsolutePath());
+            stmt.execute();
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to snapshot database", e);
+        }
+    }
+    
+    /**
+     * Get the encrypted paths of the standalone blobs a database snapshot references
+     */
+    public List<String> getSnapshotBlobPaths(File snapshot) {
+        return readSnapshotColumn(snapshot, "SELECT encrypted_path FROM vault_files WHERE encrypted_path NOT LIKE 'pack:%'");
+    }
+    
+    /**
+     * Get the pack segments a database snapshot references
+     */
+    public List<String> getSnapshotPackSegments(File snapshot) {
+        return readSnapshotColumn(snapshot, "SELECT DISTINCT segment FROM pack_records");
+    }
+    
+    private List<String> readSnapshotColumn(File snapshot, String sql) {
+        List<String> values = new ArrayList<>();
+        
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + snapshot.getAbsolutePath());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read database snapshot", e);
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Get vault-wide totals as {files, original bytes, stored bytes}
+     */
+    public long[] getStorageTotals() {
+        String sql = """
+            SELECT COUNT(*), COALESCE(SUM(file_size), 0), COALESCE(SUM(stored_size), 0)
+            FROM vault_files
+        """;
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            if (rs.next()) {
+                return new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) };
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get storage totals", e);
+        }
+        
+        return new long[] { 0, 0, 0 };
+    }
+    
     /**
      * Delete vault file from database
      */
@@ -266,45 +688,847 @@ public class DatabaseManager {
     }
     
     /**
-     * Search vault files by name or tags
+     * Delete a batch of vault files, tombstone their pack records and log
+     * delete intents for their blobs in a single transaction
      */
-    public List<VaultFile> searchVaultFiles(String searchTerm) {
-        List<VaultFile> files = new ArrayList<>();
-        String sql = """
-            SELECT * FROM vault_files 
-            WHERE original_name LIKE ? OR tags LIKE ? OR description LIKE ?
-            ORDER BY date_added DESC
-        """;
+    public int deleteVaultFiles(List<Long> fileIds, List<Long> packRecordIds, List<String> blobPaths) {
+        String deleteFileSql = "DELETE FROM vault_files WHERE id = ?";
+        String deleteRecordSql = "UPDATE pack_records SET deleted = 1 WHERE id = ?";
+        String intentSql = "INSERT INTO pending_intents (operation, blob_path, created_at) VALUES (?, ?, ?)";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement fileStmt = conn.prepareStatement(deleteFileSql);
+                 PreparedStatement recordStmt = conn.prepareStatement(deleteRecordSql);
+                 PreparedStatement intentStmt = conn.prepareStatement(intentSql)) {
+                for (Long fileId : fileIds) {
+                    fileStmt.setLong(1, fileId);
+                    fileStmt.addBatch();
+                }
+                for (Long recordId : packRecordIds) {
+                    recordStmt.setLong(1, recordId);
+                    recordStmt.addBatch();
+                }
+                
+                int deleted = 0;
+                for (int count : fileStmt.executeBatch()) {
+                    deleted += Math.max(count, 0);
+                }
+                if (!packRecordIds.isEmpty()) {
+                    recordStmt.executeBatch();
+                }
+                
+                long now = System.currentTimeMillis();
+                for (String blobPath : blobPaths) {
+                    intentStmt.setString(1, INTENT_DELETE);
+                    intentStmt.setString(2, blobPath);
+                    intentStmt.setLong(3, now);
+                    intentStmt.addBatch();
+                }
+                if (!blobPaths.isEmpty()) {
+                    intentStmt.executeBatch();
+                }
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete vault files", e);
+        }
+    }
+    
+    /**
+     * Insert or replace the preview of a file
+     */
+    public void savePreview(Preview preview) {
+        String sql = "INSERT OR REPLACE INTO previews (file_id, kind, data, last_access) VALUES (?, ?, ?, ?)";
         
         try (Connection conn = DriverManager.getConnection(DB_URL);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            String searchPattern = "%" + searchTerm + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
+            stmt.setLong(1, preview.getFileId());
+            stmt.setString(2, preview.getKind());
+            stmt.setBytes(3, preview.getData());
+            stmt.setLong(4, preview.getLastAccess());
+            stmt.executeUpdate();
             
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save preview", e);
+        }
+    }
+    
+    /**
+     * Get the preview of a file and mark it as recently used, or null if there is none
+     */
+    public Preview getPreview(long fileId) {
+        String selectSql = "SELECT * FROM previews WHERE file_id = ?";
+        String touchSql = "UPDATE previews SET last_access = ? WHERE file_id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            
+            stmt.setLong(1, fileId);
             ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            
+            Preview preview = mapPreview(rs);
+            preview.setLastAccess(System.currentTimeMillis());
+            
+            try (PreparedStatement touchStmt = conn.prepareStatement(touchSql)) {
+                touchStmt.setLong(1, preview.getLastAccess());
+                touchStmt.setLong(2, fileId);
+                touchStmt.executeUpdate();
+            }
+            
+            return preview;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get preview", e);
+        }
+    }
+    
+    /**
+     * Get every stored preview (used when re-encrypting)
+     */
+    public List<Preview> getAllPreviews() {
+        List<Preview> previews = new ArrayList<>();
+        String sql = "SELECT * FROM previews";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                VaultFile file = new VaultFile();
-                file.setId(rs.getInt("id"));
-                file.setOriginalName(rs.getString("original_name"));
-                file.setEncryptedPath(rs.getString("encrypted_path"));
-                file.setFileType(rs.getString("file_type"));
-                file.setFileSize(rs.getLong("file_size"));
-                file.setDateAdded(LocalDateTime.parse(rs.getString("date_added")));
-                file.setDescription(rs.getString("description"));
-                file.setTags(rs.getString("tags"));
-                
-                files.add(file);
+                previews.add(mapPreview(rs));
             }
             
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to search vault files", e);
+            throw new RuntimeException("Failed to get previews", e);
         }
         
-        return files;
+        return previews;
+    }
+    
+    /**
+     * Get the total size of all cached previews in bytes
+     */
+    public long getPreviewCacheSize() {
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(length(data)), 0) FROM previews")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get preview cache size", e);
+        }
+    }
+    
+    /**
+     * Delete all previews
+     */
+    public void clearPreviews() {
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM previews");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to clear previews", e);
+        }
+    }
+    
+    /**
+     * Evict least recently used previews until the cache fits in maxBytes
+     */
+    public int evictPreviews(long maxBytes) {
+        String selectSql = "SELECT file_id, length(data) AS size FROM previews ORDER BY last_access DESC";
+        String deleteSql = "DELETE FROM previews WHERE file_id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (Statement selectStmt = conn.createStatement();
+                 PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
+                long keptBytes = 0;
+                int evicted = 0;
+                
+                ResultSet rs = selectStmt.executeQuery(selectSql);
+                while (rs.next()) {
+                    keptBytes += rs.getLong("size");
+                    if (keptBytes > maxBytes) {
+                        deleteStmt.setLong(1, rs.getLong("file_id"));
+                        deleteStmt.addBatch();
+                        evicted++;
+                    }
+                }
+                rs.close();
+                
+                if (evicted > 0) {
+                    deleteStmt.executeBatch();
+                }
+                conn.commit();
+                return evicted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to evict previews", e);
+        }
+    }
+    
+    private Preview mapPreview(ResultSet rs) throws SQLException {
+        Preview preview = new Preview();
+        preview.setFileId(rs.getLong("file_id"));
+        preview.setKind(rs.getString("kind"));
+        preview.setData(rs.getBytes("data"));
+        preview.setLastAccess(rs.getLong("last_access"));
+        return preview;
+    }
+    
+    /**
+     * Point a file at a rewritten standalone blob, recording its checksum and
+     * bumping its blob version in the same statement; returns the new version
+     */
+    public int replaceBlob(long fileId, String encryptedPath, long checksum) {
+        String updateSql = "UPDATE vault_files SET encrypted_path = ?, checksum = ?, blob_version = blob_version + 1 WHERE id = ?";
+        String selectSql = "SELECT blob_version FROM vault_files WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+             PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+            
+            updateStmt.setString(1, encryptedPath);
+            updateStmt.setLong(2, checksum);
+            updateStmt.setLong(3, fileId);
+            updateStmt.executeUpdate();
+            
+            selectStmt.setLong(1, fileId);
+            ResultSet rs = selectStmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 1;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to replace blob", e);
+        }
+    }
+    
+    /**
+     * Get a vault file by id, or null if it no longer exists
+     */
+    public VaultFile getVaultFile(long fileId) {
+        String sql = "SELECT * FROM vault_files WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, fileId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return mapVaultFile(rs);
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get vault file", e);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Get up to limit files whose last integrity check is older than the given time, oldest first
+     */
+    public List<VaultFile> getFilesDueForIntegrityCheck(long checkedBefore, int limit) {
+        List<VaultFile> files = new ArrayList<>();
+        String sql = """
+            SELECT v.* FROM vault_files v
+            LEFT JOIN integrity_checks c ON c.file_id = v.id
+            WHERE c.checked_at IS NULL OR c.checked_at < ?
+            ORDER BY COALESCE(c.checked_at, 0), v.id
+            LIMIT ?
+        """;
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, checkedBefore);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                files.add(mapVaultFile(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get files due for integrity check", e);
+        }
+        
+        return files;
+    }
+    
+    /**
+     * Save a batch of integrity results (and checksum baselines) in a single transaction
+     */
+    public void saveIntegrityChecks(List<IntegrityCheck> checks, Map<Long, Long> baselineChecksums) {
+        String checkSql = "INSERT OR REPLACE INTO integrity_checks (file_id, status, checked_at, detail) VALUES (?, ?, ?, ?)";
+        String checksumSql = "UPDATE vault_files SET checksum = ? WHERE id = ? AND checksum IS NULL";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql);
+                 PreparedStatement checksumStmt = conn.prepareStatement(checksumSql)) {
+                for (IntegrityCheck check : checks) {
+                    checkStmt.setLong(1, check.getFileId());
+                    checkStmt.setString(2, check.getStatus());
+                    checkStmt.setLong(3, check.getCheckedAt());
+                    checkStmt.setString(4, check.getDetail());
+                    checkStmt.addBatch();
+                }
+                for (Map.Entry<Long, Long> entry : baselineChecksums.entrySet()) {
+                    checksumStmt.setLong(1, entry.getValue());
+                    checksumStmt.setLong(2, entry.getKey());
+                    checksumStmt.addBatch();
+                }
+                
+                checkStmt.executeBatch();
+                checksumStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save integrity checks", e);
+        }
+    }
+    
+    /**
+     * Open the import session for a source folder, reusing the one an earlier
+     * run left behind so its manifest can be resumed; returns the session id
+     */
+    public long openImportSession(String sourcePath) {
+        String insertSql = "INSERT OR IGNORE INTO import_sessions (source_path, status, started_at, updated_at) VALUES (?, ?, ?, ?)";
+        String updateSql = "UPDATE import_sessions SET status = ?, updated_at = ? WHERE source_path = ?";
+        String selectSql = "SELECT id FROM import_sessions WHERE source_path = ?";
+        long now = System.currentTimeMillis();
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                 PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+                insertStmt.setString(1, sourcePath);
+                insertStmt.setString(2, IMPORT_RUNNING);
+                insertStmt.setLong(3, now);
+                insertStmt.setLong(4, now);
+                insertStmt.executeUpdate();
+                
+                updateStmt.setString(1, IMPORT_RUNNING);
+                updateStmt.setLong(2, now);
+                updateStmt.setString(3, sourcePath);
+                updateStmt.executeUpdate();
+                
+                selectStmt.setString(1, sourcePath);
+                long sessionId;
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Import session was not created");
+                    }
+                    sessionId = rs.getLong(1);
+                }
+                
+                conn.commit();
+                return sessionId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open import session", e);
+        }
+    }
+    
+    /**
+     * Get the files an import session has already imported, keyed by source path
+     */
+    public Map<String, ImportEntry> getImportedEntries(long sessionId) {
+        Map<String, ImportEntry> entries = new HashMap<>();
+        String sql = "SELECT * FROM import_entries WHERE session_id = ? AND status = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, sessionId);
+            stmt.setString(2, ImportEntry.STATUS_IMPORTED);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long vaultFileId = rs.getLong("vault_file_id");
+                    ImportEntry entry = new ImportEntry(
+                        rs.getLong("session_id"),
+                        rs.getString("source_path"),
+                        rs.getLong("file_size"),
+                        rs.getLong("modified_at"),
+                        rs.getString("status"),
+                        rs.wasNull() ? null : vaultFileId
+                    );
+                    entries.put(entry.getSourcePath(), entry);
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load import manifest", e);
+        }
+        
+        return entries;
+    }
+    
+    /**
+     * Record a batch of import results in a single transaction
+     */
+    public void saveImportEntries(List<ImportEntry> entries) {
+        String sql = """
+            INSERT OR REPLACE INTO import_entries
+            (session_id, source_path, file_size, modified_at, status, vault_file_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (ImportEntry entry : entries) {
+                    stmt.setLong(1, entry.getSessionId());
+                    stmt.setString(2, entry.getSourcePath());
+                    stmt.setLong(3, entry.getFileSize());
+                    stmt.setLong(4, entry.getModifiedAt());
+                    stmt.setString(5, entry.getStatus());
+                    if (entry.getVaultFileId() != null) {
+                        stmt.setLong(6, entry.getVaultFileId());
+                    } else {
+                        stmt.setNull(6, Types.INTEGER);
+                    }
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save import manifest", e);
+        }
+    }
+    
+    /**
+     * Mark an import session as completed or cancelled
+     */
+    public void finishImportSession(long sessionId, String status) {
+        String sql = "UPDATE import_sessions SET status = ?, updated_at = ? WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, status);
+            stmt.setLong(2, System.currentTimeMillis());
+            stmt.setLong(3, sessionId);
+            stmt.executeUpdate();
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update import session", e);
+        }
+    }
+    
+    /**
+     * Stream the files stored as standalone blobs (id, name, path and date added only);
+     * the consumer returns false to stop early
+     */
+    public void scanStandaloneBlobs(Predicate<VaultFile> consumer) {
+        String sql = "SELECT id, original_name, encrypted_path, date_added FROM vault_files WHERE encrypted_path NOT LIKE 'pack:%'";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                VaultFile file = new VaultFile();
+                file.setId(rs.getLong("id"));
+                file.setOriginalName(rs.getString("original_name"));
+                file.setEncryptedPath(rs.getString("encrypted_path"));
+                String dateAdded = rs.getString("date_added");
+                if (dateAdded != null) {
+                    file.setDateAdded(LocalDateTime.parse(dateAdded));
+                }
+                if (!consumer.test(file)) {
+                    break;
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to scan vault blobs", e);
+        }
+    }
+    
+    /**
+     * Get files whose last integrity check found a problem
+     */
+    public List<VaultFile> getFilesFailingIntegrity() {
+        List<VaultFile> files = new ArrayList<>();
+        String sql = """
+            SELECT v.* FROM vault_files v
+            JOIN integrity_checks c ON c.file_id = v.id
+            WHERE c.status <> 'ok'
+            ORDER BY v.original_name
+        """;
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                files.add(mapVaultFile(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get files failing integrity", e);
+        }
+        
+        return files;
+    }
+    
+    private VaultFile mapVaultFile(ResultSet rs) throws SQLException {
+        VaultFile file = new VaultFile();
+        file.setId(rs.getLong("id"));
+        file.setOriginalName(rs.getString("original_name"));
+        file.setEncryptedPath(rs.getString("encrypted_path"));
+        file.setFileType(rs.getString("file_type"));
+        file.setFileSize(rs.getLong("file_size"));
+        file.setDescription(rs.getString("description"));
+        file.setTags(rs.getString("tags"));
+        file.setBlobVersion(rs.getInt("blob_version"));
+        file.setStoredSize(rs.getLong("stored_size"));
+        file.setChecksum(readChecksum(rs));
+        String dateAdded = rs.getString("date_added");
+        if (dateAdded != null) {
+            file.setDateAdded(LocalDateTime.parse(dateAdded));
+        }
+        return file;
+    }
+    
+    private Long readChecksum(ResultSet rs) throws SQLException {
+        long checksum = rs.getLong("checksum");
+        return rs.wasNull() ? null : checksum;
+    }
+    
+    /**
+     * Replace the tags of a batch of files in a single transaction
+     */
+    public int updateTags(List<Long> fileIds, String tags) {
+        String sql = "UPDATE vault_files SET tags = ? WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Long fileId : fileIds) {
+                    stmt.setString(1, tags);
+                    stmt.setLong(2, fileId);
+                    stmt.addBatch();
+                }
+                
+                int updated = 0;
+                for (int count : stmt.executeBatch()) {
+                    updated += Math.max(count, 0);
+                }
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update tags", e);
+        }
+    }
+    
+    /**
+     * Update encrypted paths for a batch of files in a single transaction
+     */
+    public int updateEncryptedPaths(Map<Long, String> pathsById) {
+        String sql = "UPDATE vault_files SET encrypted_path = ? WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Long, String> entry : pathsById.entrySet()) {
+                    stmt.setString(1, entry.getValue());
+                    stmt.setLong(2, entry.getKey());
+                    stmt.addBatch();
+                }
+                
+                int updated = 0;
+                for (int count : stmt.executeBatch()) {
+                    updated += Math.max(count, 0);
+                }
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update encrypted paths", e);
+        }
+    }
+    
+    /**
+     * Get a live pack record by id
+     */
+    public PackRecord getPackRecord(long recordId) {
+        String sql = "SELECT * FROM pack_records WHERE id = ? AND deleted = 0";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, recordId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return mapPackRecord(rs);
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get pack record", e);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Get all live pack records stored in a segment
+     */
+    public List<PackRecord> getLivePackRecords(String segment) {
+        List<PackRecord> records = new ArrayList<>();
+        String sql = "SELECT * FROM pack_records WHERE segment = ? AND deleted = 0 ORDER BY record_offset";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, segment);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                records.add(mapPackRecord(rs));
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get pack records", e);
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Get live byte and record totals for a segment as {bytes, records}
+     */
+    public long[] getPackSegmentUsage(String segment) {
+        String sql = """
+            SELECT COALESCE(SUM(record_length), 0), COUNT(*)
+            FROM pack_records WHERE segment = ? AND deleted = 0
+        """;
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, segment);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new long[] { rs.getLong(1), rs.getLong(2) };
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get pack segment usage", e);
+        }
+        
+        return new long[] { 0, 0 };
+    }
+    
+    /**
+     * Mark a pack record as deleted so compaction can reclaim its space
+     */
+    public boolean markPackRecordDeleted(long recordId) {
+        String sql = "UPDATE pack_records SET deleted = 1 WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, recordId);
+            return stmt.executeUpdate() > 0;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete pack record", e);
+        }
+    }
+    
+    /**
+     * Point a file's pack record at rewritten bytes, keeping the old bytes as
+     * a deleted tombstone; the file's checksum and blob version change in the
+     * same transaction. Returns the new blob version.
+     */
+    public int replacePackRecordLocation(long recordId, PackRecord newLocation, long fileId, long checksum) {
+        String tombstoneSql = """
+            INSERT INTO pack_records (segment, record_offset, record_length, deleted)
+            SELECT segment, record_offset, record_length, 1 FROM pack_records WHERE id = ?
+        """;
+        String updateSql = "UPDATE pack_records SET segment = ?, record_offset = ?, record_length = ? WHERE id = ?";
+        String fileSql = "UPDATE vault_files SET checksum = ?, blob_version = blob_version + 1 WHERE id = ?";
+        String selectSql = "SELECT blob_version FROM vault_files WHERE id = ?";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement tombstoneStmt = conn.prepareStatement(tombstoneSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                 PreparedStatement fileStmt = conn.prepareStatement(fileSql);
+                 PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+                
+                tombstoneStmt.setLong(1, recordId);
+                tombstoneStmt.executeUpdate();
+                
+                updateStmt.setString(1, newLocation.getSegment());
+                updateStmt.setLong(2, newLocation.getOffset());
+                updateStmt.setInt(3, newLocation.getLength());
+                updateStmt.setLong(4, recordId);
+                updateStmt.executeUpdate();
+                
+                fileStmt.setLong(1, checksum);
+                fileStmt.setLong(2, fileId);
+                fileStmt.executeUpdate();
+                
+                int blobVersion;
+                selectStmt.setLong(1, fileId);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    blobVersion = rs.next() ? rs.getInt(1) : 1;
+                }
+                
+                conn.commit();
+                return blobVersion;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to replace pack record", e);
+        }
+    }
+    
+    /**
+     * Move live records out of a compacted segment and drop its remaining rows
+     */
+    public void relocatePackSegment(String oldSegment, List<PackRecord> relocated) {
+        String updateSql = "UPDATE pack_records SET segment = ?, record_offset = ? WHERE id = ?";
+        String purgeSql = "DELETE FROM pack_records WHERE segment = ? AND deleted = 1";
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                 PreparedStatement purgeStmt = conn.prepareStatement(purgeSql)) {
+                
+                for (PackRecord record : relocated) {
+                    updateStmt.setString(1, record.getSegment());
+                    updateStmt.setLong(2, record.getOffset());
+                    updateStmt.setLong(3, record.getId());
+                    updateStmt.addBatch();
+                }
+                updateStmt.executeBatch();
+                
+                purgeStmt.setString(1, oldSegment);
+                purgeStmt.executeUpdate();
+                
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to relocate pack segment", e);
+        }
+    }
+    
+    private PackRecord mapPackRecord(ResultSet rs) throws SQLException {
+        PackRecord record = new PackRecord();
+        record.setId(rs.getLong("id"));
+        record.setSegment(rs.getString("segment"));
+        record.setOffset(rs.getLong("record_offset"));
+        record.setLength(rs.getInt("record_length"));
+        record.setDeleted(rs.getBoolean("deleted"));
+        return record;
+    }
+    
+    /**
+     * Search vault files by name or tags
+     */
+    public List<VaultFile> searchVaultFiles(String searchTerm) {
+        List<VaultFile> files = new ArrayList<>();
+        searchVaultFiles(searchTerm, files::add);
+        return files;
+    }
+    
+    /**
+     * Stream search results to a consumer as rows are read; the consumer
+     * returns false to stop reading early
+     */
+    public void searchVaultFiles(String searchTerm, Predicate<VaultFile> consumer) {
+        String sql = """
+            SELECT * FROM vault_files 
+            WHERE original_name LIKE ? OR tags LIKE ? OR description LIKE ?
+            ORDER BY date_added DESC
+        """;
+        
+        try (Connection conn = DriverManager.getConnection(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            String searchPattern = "%" + searchTerm + "%";
+            stmt.setString(1, searchPattern);
+            stmt.setString(2, searchPattern);
+            stmt.setString(3, searchPattern);
+            
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                VaultFile file = new VaultFile();
+                file.setId(rs.getInt("id"));
+                file.setOriginalName(rs.getString("original_name"));
+                file.setEncryptedPath(rs.getString("encrypted_path"));
+                file.setFileType(rs.getString("file_type"));
+                file.setFileSize(rs.getLong("file_size"));
+                file.setDateAdded(LocalDateTime.parse(rs.getString("date_added")));
+                file.setDescription(rs.getString("description"));
+                file.setTags(rs.getString("tags"));
+                file.setBlobVersion(rs.getInt("blob_version"));
+                file.setStoredSize(rs.getLong("stored_size"));
+                file.setChecksum(readChecksum(rs));
+                
+                if (!consumer.test(file)) {
+                    break;
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to search vault files", e);
+        }
     }
     
     /**
@@ -487,6 +1711,9 @@ public class DatabaseManager {
                 file.setFileSize(rs.getLong("file_size"));
                 file.setFileType(rs.getString("file_type"));
                 file.setDescription(rs.getString("description"));
+                file.setBlobVersion(rs.getInt("blob_version"));
+                file.setStoredSize(rs.getLong("stored_size"));
+                file.setChecksum(readChecksum(rs));
                 
                 // Handle date_added
                 String dateAddedStr = rs.getString("date_added");
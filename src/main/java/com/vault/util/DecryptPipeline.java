@@ -0,0 +1,98 @@
+package com.vault.util;
+
+import com.vault.config.SecurityConfig;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reusable channel-to-channel decryption pipeline.
+ *
+ * Each pipeline owns a pair of direct buffers, so ciphertext is read from a
+ * FileChannel, decrypted and written to the output channel without touching
+ * a heap byte[]. A pipeline is not thread safe; bulk operations keep one per
+ * worker thread and reuse it for every file that thread handles.
+ */
+public class DecryptPipeline {
+    
+    private static final int IV_LENGTH = SecurityConfig.IV_LENGTH;
+    private static final int BUFFER_SIZE = 1024 * 1024; // 1MB
+    
+    private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE + IV_LENGTH * 2);
+    private final byte[] iv = new byte[IV_LENGTH];
+    
+    /**
+     * Decrypt a whole blob file into the output channel
+     */
+    public long decrypt(FileChannel in, SecretKey key, WritableByteChannel out) throws IOException {
+        return decrypt(in, 0, in.size(), key, out);
+    }
+    
+    /**
+     * Decrypt the IV + ciphertext stored at [position, position + length) of the
+     * input channel, e.g. a single record inside a pack segment
+     */
+    public long decrypt(FileChannel in, long position, long length, SecretKey key, WritableByteChannel out) throws IOException {
+        if (length < IV_LENGTH * 2) {
+            throw new IOException("Invalid encrypted data: too short");
+        }
+        
+        try {
+            readIv(in, position);
+            Cipher cipher = SecurityUtil.createDecryptCipher(key, iv);
+            
+            long written = 0;
+            long current = position + IV_LENGTH;
+            long end = position + length;
+            while (current < end) {
+                input.clear();
+                input.limit((int) Math.min(BUFFER_SIZE, end - current));
+                int read = in.read(input, current);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of encrypted data");
+                }
+                current += read;
+                
+                input.flip();
+                output.clear();
+                cipher.update(input, output);
+                written += drain(out);
+            }
+            
+            input.clear().limit(0);
+            output.clear();
+            cipher.doFinal(input, output);
+            written += drain(out);
+            
+            return written;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            SecurityConfig.secureLog(java.util.logging.Level.WARNING, "Pipeline decryption failed: {0}", e.getClass().getSimpleName());
+            throw new RuntimeException(SecureErrorHandler.handleCryptoError(e), e);
+        }
+    }
+    
+    private void readIv(FileChannel in, long position) throws IOException {
+        ByteBuffer ivBuffer = ByteBuffer.wrap(iv);
+        while (ivBuffer.hasRemaining()) {
+            if (in.read(ivBuffer, position + ivBuffer.position()) < 0) {
+                throw new IOException("Invalid encrypted data: missing IV");
+            }
+        }
+    }
+    
+    private long drain(WritableByteChannel out) throws IOException {
+        output.flip();
+        long written = 0;
+        while (output.hasRemaining()) {
+            written += out.write(output);
+        }
+        return written;
+    }
+}
@@ -1,9 +1,11 @@
 package com.vault.util;
 
 import com.vault.model.VaultFile;
+import com.vault.service.PackStore;
 
 import javax.crypto.SecretKey;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.util.List;
 
@@ -16,6 +18,9 @@ public class DirectFileAccess {
     
     private static final String VAULT_DIR = System.getProperty("user.home") + "/.securevault";
     private static final String FILES_DIR = VAULT_DIR + "/files";
+    private static final String PACKS_DIR = VAULT_DIR + "/packs";
+    
+    private static PackStore packStore;
     private static final String OUTPUT_DIR = System.getProperty("user.home") + "/Desktop/VaultOutput";
     
     public static void main(String[] args) {
@@ -36,7 +41,12 @@ public class DirectFileAccess {
         
         try {
             // Generate encryption key
-            SecretKey key = SecurityUtil.generateKeyFromPassword(password, username);
+            RecoveryEngine engine = new RecoveryEngine(List.of(
+                new RecoveryEngine.Candidate(username + "/" + password, password, username)));
+            if (engine.deriveKeys().isEmpty()) {
+                System.out.println("Could not derive a key from these credentials");
+                return;
+            }
             System.out.println("Encryption key generated successfully");
             
             // List all encrypted files in vault directory
@@ -46,13 +56,13 @@ public class DirectFileAccess {
                 return;
             }
             
-            File[] encryptedFiles = vaultDir.listFiles((dir, name) -> name.endsWith(".enc"));
-            if (encryptedFiles == null || encryptedFiles.length == 0) {
+            List<File> encryptedFiles = BlobLayout.listBlobs(FILES_DIR);
+            if (encryptedFiles.isEmpty()) {
                 System.out.println("No encrypted files found in vault");
                 return;
             }
             
-            System.out.println("Found " + encryptedFiles.length + " encrypted files:");
+            System.out.println("Found " + encryptedFiles.size() + " encrypted files:");
             for (File file : encryptedFiles) {
                 System.out.println("  - " + file.getName() + " (" + (file.length() / 1024 / 1024) + " MB)");
             }
@@ -60,11 +70,11 @@ public class DirectFileAccess {
             
             // Try to decrypt each file
             for (File encryptedFile : encryptedFiles) {
-                decryptAndSaveFile(encryptedFile, key);
+                decryptAndSaveFile(encryptedFile, engine);
             }
             
             // Also try to get files from database
-            tryDatabaseFiles(key);
+            tryDatabaseFiles(engine);
             
         } catch (Exception e) {
             System.err.println("Error in direct file access: " + e.getMessage());
@@ -84,10 +94,19 @@ public class DirectFileAccess {
         }
     }
     
-    private static void decryptAndSaveFile(File encryptedFile, SecretKey key) {
+    private static void decryptAndSaveFile(File encryptedFile, RecoveryEngine engine) {
         System.out.println("Processing: " + encryptedFile.getName());
         
         try {
+            // Check the key on the last block before reading the whole file
+            RecoveryEngine.Match match = engine.findKey(encryptedFile, -1);
+            if (match == null) {
+                System.out.println("  ❌ FAILED: credentials do not match this file");
+                System.out.println();
+                return;
+            }
+            SecretKey key = match.getKey();
+            
             // Read encrypted data
             byte[] encryptedData = Files.readAllBytes(encryptedFile.toPath());
             System.out.println("  Read " + encryptedData.length + " bytes");
@@ -124,7 +143,7 @@ public class DirectFileAccess {
         System.out.println();
     }
     
-    private static void tryDatabaseFiles(SecretKey key) {
+    private static void tryDatabaseFiles(RecoveryEngine engine) {
         System.out.println("Checking database for vault files...");
         
         try {
@@ -140,10 +159,17 @@ public class DirectFileAccess {
                 System.out.println("  Type: " + vaultFile.getFileType());
                 
                 // Try to decrypt this file
-                File encryptedFile = new File(vaultFile.getEncryptedPath());
-                if (encryptedFile.exists()) {
+                byte[] encryptedData;
+                try {
+                    encryptedData = readEncryptedData(vaultFile);
+                } catch (IOException e) {
+                    System.out.println("  ❌ Could not read encrypted data: " + e.getMessage());
+                    System.out.println();
+                    continue;
+                }
+                if (encryptedData != null) {
                     // Use original name for output
-                    decryptDatabaseFile(vaultFile, encryptedFile, key);
+                    decryptDatabaseFile(vaultFile, encryptedData, engine);
                 } else {
                     System.out.println("  ❌ Encrypted file not found: " + vaultFile.getEncryptedPath());
                 }
@@ -155,10 +181,32 @@ public class DirectFileAccess {
         }
     }
     
-    private static void decryptDatabaseFile(VaultFile vaultFile, File encryptedFile, SecretKey key) {
+    /**
+     * Read the ciphertext of a database file from its pack segment or its
+     * (possibly sharded) blob; null if it is gone
+     */
+    private static byte[] readEncryptedData(VaultFile vaultFile) throws IOException {
+        if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+            if (packStore == null) {
+                packStore = new PackStore(PACKS_DIR);
+            }
+            long recordId = PackStore.recordId(vaultFile.getEncryptedPath());
+            return packStore.exists(recordId) ? packStore.read(recordId) : null;
+        }
+        
+        File encryptedFile = BlobLayout.resolve(FILES_DIR, vaultFile.getEncryptedPath());
+        return encryptedFile.exists() ? Files.readAllBytes(encryptedFile.toPath()) : null;
+    }
+    
+    private static void decryptDatabaseFile(VaultFile vaultFile, byte[] encryptedData, RecoveryEngine engine) {
         try {
-            // Read encrypted data
-            byte[] encryptedData = Files.readAllBytes(encryptedFile.toPath());
+            // The probe also checks the plaintext length recorded in the database
+            RecoveryEngine.Match match = engine.findKey(encryptedData, vaultFile.getFileSize());
+            if (match == null) {
+                System.out.println("  ❌ FAILED to decrypt: credentials do not match this file");
+                return;
+            }
+            SecretKey key = match.getKey();
             
             // Decrypt data
             byte[] decryptedData = SecurityUtil.decrypt(encryptedData, key);
@@ -3,7 +3,7 @@ package com.vault.util;
 import com.vault.model.Admin;
 
 import java.io.File;
-import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -32,8 +32,8 @@ public class FileRecoveryDiagnostic {
                 return;
             }
             
-            File[] encFiles = filesDir.listFiles((dir, name) -> name.endsWith(".enc"));
-            if (encFiles == null || encFiles.length == 0) {
+            File[] encFiles = BlobLayout.listBlobs(FILES_DIR).toArray(new File[0]);
+            if (encFiles.length == 0) {
                 System.out.println("No encrypted files found in vault.");
                 return;
             }
@@ -57,10 +57,6 @@ public class FileRecoveryDiagnostic {
             System.out.println("\nDiagnosing: " + selectedFile.getName());
             System.out.println("File size: " + selectedFile.length() + " bytes");
             
-            // Read encrypted data
-            byte[] encryptedData = Files.readAllBytes(selectedFile.toPath());
-            System.out.println("Successfully read " + encryptedData.length + " bytes");
-            
             // Try different password combinations
             System.out.println("\nTrying common passwords...");
             
@@ -74,44 +70,29 @@ public class FileRecoveryDiagnostic {
                 "admin", "Lintshiwe", "lintshiwe", "user", "vault"
             };
             
-            boolean recovered = false;
-            
-            // Try current admin usernames from database with common passwords
+            // Current admin usernames from database first, then the common ones
+            List<String> usernames = new ArrayList<>();
             try {
                 DatabaseManager dbManager = DatabaseManager.getInstance();
                 List<Admin> admins = dbManager.getAllAdmins();
                 System.out.println("Found " + admins.size() + " admin(s) in database");
                 
                 for (Admin admin : admins) {
-                    String username = admin.getUsername();
-                    System.out.println("Trying passwords for database admin: " + username);
-                    
-                    for (String password : commonPasswords) {
-                        if (tryDecrypt(encryptedData, username, password)) {
-                            System.out.println("✓ SUCCESS: File can be decrypted with " + username + "/" + password);
-                            recovered = true;
-                            break;
-                        }
-                    }
-                    if (recovered) break;
+                    usernames.add(admin.getUsername());
                 }
             } catch (Exception e) {
                 System.out.println("Error reading database: " + e.getMessage());
             }
+            usernames.addAll(List.of(commonUsernames));
             
-            if (!recovered) {
-                // Try common password combinations
-                for (String username : commonUsernames) {
-                    for (String password : commonPasswords) {
-                        System.out.println("Trying: " + username + "/" + password);
-                        if (tryDecrypt(encryptedData, username, password)) {
-                            System.out.println("✓ SUCCESS: File can be decrypted with " + username + "/" + password);
-                            recovered = true;
-                            break;
-                        }
-                    }
-                    if (recovered) break;
-                }
+            RecoveryEngine engine = new RecoveryEngine(
+                RecoveryEngine.combine(commonPasswords, usernames.toArray(new String[0])));
+            System.out.println("Trying " + engine.getCandidateCount() + " username/password combinations...");
+            RecoveryEngine.Match match = engine.findKey(selectedFile, -1);
+            boolean recovered = match != null;
+            if (recovered) {
+                System.out.println("✓ SUCCESS: File can be decrypted with "
+                    + match.getCandidate().getSalt() + "/" + match.getCandidate().getPassword());
             }
             
             if (!recovered) {
@@ -126,10 +107,9 @@ public class FileRecoveryDiagnostic {
                     System.out.print("Enter password: ");
                     String password = scanner.nextLine();
                     
-                    if (tryDecrypt(encryptedData, username, password)) {
-                        System.out.println("✓ SUCCESS: File can be decrypted with " + username + "/" + password);
-                        
-                        // Offer to show the working password
+                    RecoveryEngine custom = new RecoveryEngine(List.of(
+                        new RecoveryEngine.Candidate("custom", password, username)));
+                    if (custom.findKey(selectedFile, -1) != null) {
                         System.out.println("✓ SUCCESS: File can be decrypted with " + username + "/" + password);
                         System.out.println("You can use this password to access the file manually.");
                         System.out.println("Consider updating your admin password to match this one if needed.");
@@ -146,14 +126,4 @@ public class FileRecoveryDiagnostic {
             scanner.close();
         }
     }
-    
-    private static boolean tryDecrypt(byte[] encryptedData, String username, String password) {
-        try {
-            javax.crypto.SecretKey key = SecurityUtil.generateKeyFromPassword(password, username);
-            byte[] decryptedData = SecurityUtil.decrypt(encryptedData, key);
-            return decryptedData != null && decryptedData.length > 0;
-        } catch (Exception e) {
-            return false;
-        }
-    }
 }
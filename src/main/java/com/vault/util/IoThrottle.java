@@ -0,0 +1,43 @@
+package com.vault.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter for background I/O.
+ *
+ * Callers report the bytes they just moved and are put to sleep whenever
+ * the total gets ahead of the configured rate. One throttle can be shared
+ * by several worker threads to cap their combined throughput.
+ */
+public class IoThrottle {
+    
+    private final long bytesPerSecond;
+    private final long startNanos = System.nanoTime();
+    private long bytes;
+    
+    public IoThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+    
+    /**
+     * Account for transferred bytes, sleeping if the caller is ahead of the rate
+     */
+    public void acquire(long transferred) {
+        long aheadNanos;
+        synchronized (this) {
+            bytes += transferred;
+            // Whole seconds plus remainder, so large totals cannot overflow
+            long expectedNanos = bytes / bytesPerSecond * 1_000_000_000L
+                    + bytes % bytesPerSecond * 1_000_000_000L / bytesPerSecond;
+            aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+        }
+        
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.vault.util;
+
+import com.vault.config.SecurityConfig;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped decryption for large encrypted blobs.
+ *
+ * Blobs are stored as IV + AES/CBC ciphertext. Instead of reading the whole
+ * file onto the heap, the ciphertext is mapped one bounded window at a time
+ * and fed straight from the mapped region into the cipher, so page-cache-hot
+ * reads never copy through a byte[] and multi-GB blobs only ever have one
+ * window of address space mapped.
+ */
+public class MappedBlobReader {
+    
+    private static final int IV_LENGTH = SecurityConfig.IV_LENGTH;
+    private static final int SLICE_SIZE = 1024 * 1024; // 1MB handed to the cipher per update
+    
+    private MappedBlobReader() {}
+    
+    /**
+     * Decrypt a whole blob into the output channel using the default window size
+     */
+    public static long decryptTo(Path blob, SecretKey key, WritableByteChannel out) throws IOException {
+        return decryptTo(blob, key, out, SecurityConfig.MAPPED_WINDOW_SIZE);
+    }
+    
+    /**
+     * Decrypt a whole blob into the output channel, mapping at most windowSize bytes at a time
+     */
+    public static long decryptTo(Path blob, SecretKey key, WritableByteChannel out, long windowSize) throws IOException {
+        try (FileChannel in = FileChannel.open(blob, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < IV_LENGTH * 2) {
+                throw new IOException("Invalid encrypted data: too short");
+            }
+            
+            Cipher cipher = SecurityUtil.createDecryptCipher(key, readIv(in));
+            ByteBuffer output = ByteBuffer.allocateDirect(SLICE_SIZE + IV_LENGTH * 2);
+            long written = 0;
+            
+            long position = IV_LENGTH;
+            while (position < size) {
+                long windowLength = Math.min(windowSize, size - position);
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+                
+                while (window.hasRemaining()) {
+                    int sliceLength = Math.min(window.remaining(), SLICE_SIZE);
+                    ByteBuffer slice = window.slice(window.position(), sliceLength);
+                    window.position(window.position() + sliceLength);
+                    
+                    output.clear();
+                    cipher.update(slice, output);
+                    written += drain(output, out);
+                }
+                
+                position += windowLength;
+            }
+            
+            output.clear();
+            cipher.doFinal(ByteBuffer.allocate(0), output);
+            written += drain(output, out);
+            
+            return written;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            SecurityConfig.secureLog(java.util.logging.Level.WARNING, "Mapped decryption failed: {0}", e.getClass().getSimpleName());
+            throw new RuntimeException(SecureErrorHandler.handleCryptoError(e), e);
+        }
+    }
+    
+    private static byte[] readIv(FileChannel in) throws IOException {
+        ByteBuffer iv = ByteBuffer.allocate(IV_LENGTH);
+        while (iv.hasRemaining()) {
+            if (in.read(iv, iv.position()) < 0) {
+                throw new IOException("Invalid encrypted data: missing IV");
+            }
+        }
+        return iv.array();
+    }
+    
+    private static long drain(ByteBuffer output, WritableByteChannel out) throws IOException {
+        output.flip();
+        long written = 0;
+        while (output.hasRemaining()) {
+            written += out.write(output);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,131 @@
+package com.vault.util;
+
+import com.vault.config.SecurityConfig;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random-access decryption of an IV + AES/CBC blob.
+ *
+ * In CBC every ciphertext block is decrypted with the previous ciphertext
+ * block as its IV, so any plaintext range can be produced by reading just
+ * the blocks that cover it plus the one before. The PKCS5 padding only
+ * lives in the last block, which is inspected once to learn the exact
+ * plaintext length.
+ */
+public class RangeDecryptor implements Closeable {
+    
+    private static final int BLOCK_SIZE = 16;
+    private static final int IV_LENGTH = SecurityConfig.IV_LENGTH;
+    private static final int CHUNK_BLOCKS = 4096; // 64KB per read
+    
+    private final FileChannel channel;
+    private final long offset;
+    private final long cipherLength;
+    private final SecretKey key;
+    private long plaintextLength = -1;
+    
+    /**
+     * Decrypt ranges of the blob stored at [offset, offset + length) of the channel.
+     * The decryptor takes ownership of the channel.
+     */
+    public RangeDecryptor(FileChannel channel, long offset, long length, SecretKey key) throws IOException {
+        long cipherLength = length - IV_LENGTH;
+        if (cipherLength < BLOCK_SIZE || cipherLength % BLOCK_SIZE != 0) {
+            channel.close();
+            throw new IOException("Invalid encrypted data: not a whole number of blocks");
+        }
+        
+        this.channel = channel;
+        this.offset = offset;
+        this.cipherLength = cipherLength;
+        this.key = key;
+    }
+    
+    /**
+     * Exact plaintext length, read from the padding of the final block.
+     * Throws if the padding is invalid, i.e. the key is wrong.
+     */
+    public long plaintextLength() throws IOException {
+        if (plaintextLength < 0) {
+            long lastBlock = cipherLength / BLOCK_SIZE - 1;
+            plaintextLength = cipherLength - paddingLength(decryptBlocks(lastBlock, 1));
+        }
+        return plaintextLength;
+    }
+    
+    /**
+     * PKCS5 padding length of a decrypted final block; throws if it is not
+     * valid padding, which is what a wrong key almost always produces
+     */
+    static int paddingLength(byte[] plainBlock) throws IOException {
+        int padding = plainBlock[BLOCK_SIZE - 1] & 0xFF;
+        if (padding < 1 || padding > BLOCK_SIZE) {
+            throw new IOException("Invalid padding in final block");
+        }
+        for (int i = BLOCK_SIZE - padding; i < BLOCK_SIZE; i++) {
+            if ((plainBlock[i] & 0xFF) != padding) {
+                throw new IOException("Invalid padding in final block");
+            }
+        }
+        return padding;
+    }
+    
+    /**
+     * Write plaintext bytes [start, endInclusive] to the output stream
+     */
+    public void copyRange(long start, long endInclusive, OutputStream out) throws IOException {
+        long end = Math.min(endInclusive, plaintextLength() - 1);
+        long position = start;
+        
+        while (position <= end) {
+            long firstBlock = position / BLOCK_SIZE;
+            long lastBlock = Math.min(end / BLOCK_SIZE, firstBlock + CHUNK_BLOCKS - 1);
+            byte[] plain = decryptBlocks(firstBlock, (int) (lastBlock - firstBlock + 1));
+            
+            int from = (int) (position - firstBlock * BLOCK_SIZE);
+            int to = (int) (Math.min(end, (lastBlock + 1) * BLOCK_SIZE - 1) - firstBlock * BLOCK_SIZE);
+            out.write(plain, from, to - from + 1);
+            
+            position = (lastBlock + 1) * BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Decrypt whole ciphertext blocks without removing padding
+     */
+    private byte[] decryptBlocks(long firstBlock, int blockCount) throws IOException {
+        // The IV of a block is the ciphertext block before it (or the blob IV for block 0)
+        ByteBuffer buffer = ByteBuffer.allocate((blockCount + 1) * BLOCK_SIZE);
+        readFully(buffer, offset + IV_LENGTH + (firstBlock - 1) * BLOCK_SIZE);
+        
+        byte[] data = buffer.array();
+        try {
+            Cipher cipher = SecurityUtil.createBlockDecryptCipher(key, java.util.Arrays.copyOf(data, BLOCK_SIZE));
+            return cipher.doFinal(data, BLOCK_SIZE, blockCount * BLOCK_SIZE);
+        } catch (Exception e) {
+            throw new IOException(SecureErrorHandler.handleCryptoError(e), e);
+        }
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of encrypted data");
+            }
+            position += read;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
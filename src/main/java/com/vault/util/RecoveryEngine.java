@@ -0,0 +1,267 @@
+package com.vault.util;
+
+import com.vault.config.SecurityConfig;
+
+import javax.crypto.SecretKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds which of a set of candidate credentials a blob was encrypted with.
+ *
+ * Every candidate key is derived once (PBKDF2 is the expensive part) on all
+ * cores, and is then tested against a probe of the blob: only the final two
+ * cipher blocks are read and one block is decrypted to check the PKCS5
+ * padding. When the plaintext length is known, it must match exactly, which
+ * rules out practically every false positive. Nothing is fully decrypted
+ * until a key has passed the probe.
+ */
+public class RecoveryEngine {
+    
+    private static final int BLOCK_SIZE = 16;
+    private static final int IV_LENGTH = SecurityConfig.IV_LENGTH;
+    
+    private final List<Candidate> candidates;
+    private List<DerivedKey> derivedKeys;
+    private volatile DerivedKey lastMatch;
+    
+    public RecoveryEngine(List<Candidate> candidates) {
+        // Drop duplicate password/salt pairs, keeping the first (preferred) label
+        Map<String, Candidate> unique = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            unique.putIfAbsent(candidate.password + '\u0000' + candidate.salt, candidate);
+        }
+        this.candidates = new ArrayList<>(unique.values());
+    }
+    
+    /**
+     * Every combination of password and salt
+     */
+    public static List<Candidate> combine(String[] passwords, String[] salts) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (String salt : salts) {
+            for (String password : passwords) {
+                candidates.add(new Candidate(salt + "/" + password, password, salt));
+            }
+        }
+        return candidates;
+    }
+    
+    public int getCandidateCount() {
+        return candidates.size();
+    }
+    
+    /**
+     * Derive the key of every candidate, in parallel and only on first use.
+     * Candidates whose salt cannot be used are left out.
+     */
+    public synchronized List<DerivedKey> deriveKeys() {
+        if (derivedKeys != null) {
+            return derivedKeys;
+        }
+        
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), candidates.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "recovery-keys");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try {
+            List<Future<SecretKey>> futures = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                futures.add(executor.submit(() -> deriveKey(candidate)));
+            }
+            
+            List<DerivedKey> keys = new ArrayList<>(candidates.size());
+            for (int i = 0; i < futures.size(); i++) {
+                SecretKey key = futures.get(i).get();
+                if (key != null) {
+                    keys.add(new DerivedKey(candidates.get(i), key));
+                }
+            }
+            derivedKeys = Collections.unmodifiableList(keys);
+            return derivedKeys;
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Key derivation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Key derivation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Find the key of a blob file; expectedLength is the plaintext size, or -1 if unknown
+     */
+    public Match findKey(File blob, long expectedLength) throws IOException {
+        return findKey(Probe.read(blob), expectedLength);
+    }
+    
+    /**
+     * Find the key of a blob already in memory
+     */
+    public Match findKey(byte[] blob, long expectedLength) throws IOException {
+        return findKey(Probe.of(blob), expectedLength);
+    }
+    
+    /**
+     * Test every derived key against a probe; the key that matched last
+     * time is tried first since files in one vault usually share it
+     */
+    public Match findKey(Probe probe, long expectedLength) {
+        DerivedKey preferred = lastMatch;
+        if (preferred != null && probe.test(preferred.key, expectedLength)) {
+            return new Match(preferred.candidate, preferred.key);
+        }
+        
+        for (DerivedKey derived : deriveKeys()) {
+            if (derived != preferred && probe.test(derived.key, expectedLength)) {
+                lastMatch = derived;
+                return new Match(derived.candidate, derived.key);
+            }
+        }
+        return null;
+    }
+    
+    private static SecretKey deriveKey(Candidate candidate) {
+        try {
+            return SecurityUtil.generateKeyFromPassword(candidate.password, candidate.salt);
+        } catch (RuntimeException e) {
+            // e.g. a username tried as salt that is not valid Base64
+            return null;
+        }
+    }
+    
+    /**
+     * A password and salt to try, with a label for reporting
+     */
+    public static class Candidate {
+        private final String label;
+        private final String password;
+        private final String salt;
+        
+        public Candidate(String label, String password, String salt) {
+            this.label = label;
+            this.password = password;
+            this.salt = salt;
+        }
+        
+        public String getLabel() { return label; }
+        public String getPassword() { return password; }
+        public String getSalt() { return salt; }
+    }
+    
+    /**
+     * A candidate together with its derived key
+     */
+    public static class DerivedKey {
+        private final Candidate candidate;
+        private final SecretKey key;
+        
+        DerivedKey(Candidate candidate, SecretKey key) {
+            this.candidate = candidate;
+            this.key = key;
+        }
+        
+        public Candidate getCandidate() { return candidate; }
+        public SecretKey getKey() { return key; }
+    }
+    
+    /**
+     * The candidate whose key passed the probe
+     */
+    public static class Match {
+        private final Candidate candidate;
+        private final SecretKey key;
+        
+        Match(Candidate candidate, SecretKey key) {
+            this.candidate = candidate;
+            this.key = key;
+        }
+        
+        public Candidate getCandidate() { return candidate; }
+        public SecretKey getKey() { return key; }
+    }
+    
+    /**
+     * The last two cipher blocks of a blob (the block before the final one
+     * is the IV of the final block in CBC)
+     */
+    public static class Probe {
+        private final long cipherLength;
+        private final byte[] previousBlock;
+        private final byte[] finalBlock;
+        
+        private Probe(long cipherLength, byte[] previousBlock, byte[] finalBlock) {
+            this.cipherLength = cipherLength;
+            this.previousBlock = previousBlock;
+            this.finalBlock = finalBlock;
+        }
+        
+        public static Probe read(File blob) throws IOException {
+            try (FileChannel channel = FileChannel.open(blob.toPath(), StandardOpenOption.READ)) {
+                long length = channel.size();
+                checkLength(length);
+                
+                ByteBuffer tail = ByteBuffer.allocate(2 * BLOCK_SIZE);
+                long position = length - tail.capacity();
+                while (tail.hasRemaining()) {
+                    int read = channel.read(tail, position);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of encrypted data");
+                    }
+                    position += read;
+                }
+                return of(tail.array(), length);
+            }
+        }
+        
+        public static Probe of(byte[] blob) throws IOException {
+            checkLength(blob.length);
+            return of(Arrays.copyOfRange(blob, blob.length - 2 * BLOCK_SIZE, blob.length), blob.length);
+        }
+        
+        private static Probe of(byte[] tail, long length) {
+            return new Probe(length - IV_LENGTH,
+                Arrays.copyOfRange(tail, 0, BLOCK_SIZE),
+                Arrays.copyOfRange(tail, BLOCK_SIZE, 2 * BLOCK_SIZE));
+        }
+        
+        private static void checkLength(long length) throws IOException {
+            long cipherLength = length - IV_LENGTH;
+            if (cipherLength < BLOCK_SIZE || cipherLength % BLOCK_SIZE != 0) {
+                throw new IOException("Invalid encrypted data: not a whole number of blocks");
+            }
+        }
+        
+        /**
+         * Decrypt the final block with a key and check its padding (and the
+         * resulting plaintext length, when known)
+         */
+        boolean test(SecretKey key, long expectedLength) {
+            try {
+                byte[] plain = SecurityUtil.createBlockDecryptCipher(key, previousBlock).doFinal(finalBlock);
+                long plaintextLength = cipherLength - RangeDecryptor.paddingLength(plain);
+                return expectedLength < 0 || plaintextLength == expectedLength;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
@@ -2,17 +2,22 @@ package com.vault.util;
 
 import com.vault.model.VaultFile;
 import com.vault.model.Admin;
+import com.vault.service.PackStore;
 import java.io.File;
 import java.util.List;
 import java.util.ArrayList;
-import javax.crypto.SecretKey;
-import org.apache.commons.io.FileUtils;
 
 /**
  * Recovery utility to help decrypt files when credentials have been lost or changed
  */
 public class RecoveryUtil {
     
+    private static final String VAULT_DIR = System.getProperty("user.home") + File.separator + ".securevault";
+    private static final String FILES_DIR = VAULT_DIR + File.separator + "files";
+    private static final String PACKS_DIR = VAULT_DIR + File.separator + "packs";
+    
+    private static PackStore packStore;
+    
     /**
      * Common default passwords to try
      */
@@ -28,65 +33,66 @@ public class RecoveryUtil {
      * Try to recover a file by attempting different password combinations
      */
     public static RecoveryResult attemptFileRecovery(VaultFile vaultFile, List<Admin> adminHistory) {
-        File encryptedFile = new File(vaultFile.getEncryptedPath());
-        if (!encryptedFile.exists()) {
-            return new RecoveryResult(false, "Encrypted file not found", null, null);
-        }
-        
+        return attemptFileRecovery(vaultFile, createEngine(adminHistory));
+    }
+    
+    /**
+     * Try to recover a file with an engine whose keys may already be derived
+     */
+    public static RecoveryResult attemptFileRecovery(VaultFile vaultFile, RecoveryEngine engine) {
         try {
-            byte[] encryptedData = FileUtils.readFileToByteArray(encryptedFile);
-            
-            // Try current admin credentials first
-            DatabaseManager dbManager = DatabaseManager.getInstance();
-            Admin currentAdmin = getCurrentAdmin(dbManager);
-            if (currentAdmin != null) {
-                RecoveryResult result = tryDecryptWithCredentials(encryptedData, "admin123", currentAdmin.getSalt());
-                if (result.success) {
-                    return result;
+            RecoveryEngine.Match match;
+            if (PackStore.isPackPath(vaultFile.getEncryptedPath())) {
+                long recordId = PackStore.recordId(vaultFile.getEncryptedPath());
+                if (!getPackStore().exists(recordId)) {
+                    return new RecoveryResult(false, "Encrypted file not found", null, null);
                 }
-            }
-            
-            // Try common passwords with different salts from admin history
-            for (Admin admin : adminHistory) {
-                for (String password : COMMON_PASSWORDS) {
-                    RecoveryResult result = tryDecryptWithCredentials(encryptedData, password, admin.getSalt());
-                    if (result.success) {
-                        return result;
-                    }
+                match = engine.findKey(getPackStore().read(recordId), vaultFile.getFileSize());
+            } else {
+                File encryptedFile = BlobLayout.resolve(FILES_DIR, vaultFile.getEncryptedPath());
+                if (!encryptedFile.exists()) {
+                    return new RecoveryResult(false, "Encrypted file not found", null, null);
                 }
+                match = engine.findKey(encryptedFile, vaultFile.getFileSize());
             }
-            
-            // Try generating new salts with common passwords (in case salt was regenerated)
-            for (String password : COMMON_PASSWORDS) {
-                // Try with a fresh salt (this shouldn't work but worth trying)
-                String testSalt = SecurityUtil.generateSalt();
-                RecoveryResult result = tryDecryptWithCredentials(encryptedData, password, testSalt);
-                if (result.success) {
-                    return result;
-                }
+            if (match == null) {
+                return new RecoveryResult(false, "Could not recover file with any known credentials", null, null);
             }
             
-            return new RecoveryResult(false, "Could not recover file with any known credentials", null, null);
+            return new RecoveryResult(true, "Key found for " + vaultFile.getFileSize() + " bytes",
+                    match.getCandidate().getPassword(), match.getCandidate().getSalt());
             
         } catch (Exception e) {
             return new RecoveryResult(false, "Recovery failed: " + e.getMessage(), null, null);
         }
     }
     
-    private static RecoveryResult tryDecryptWithCredentials(byte[] encryptedData, String password, String salt) {
-        try {
-            SecretKey key = SecurityUtil.generateKeyFromPassword(password, salt);
-            byte[] decryptedData = SecurityUtil.decrypt(encryptedData, key);
-            // Verify we got valid data (not null and has content)
-            if (decryptedData != null && decryptedData.length > 0) {
-                return new RecoveryResult(true, "Successfully decrypted " + decryptedData.length + " bytes", password, salt);
-            } else {
-                return new RecoveryResult(false, "Decryption returned empty data", null, null);
+    /**
+     * Candidates in the order they used to be tried: the current admin with
+     * the default password, then common passwords with every historic salt
+     */
+    public static RecoveryEngine createEngine(List<Admin> adminHistory) {
+        List<RecoveryEngine.Candidate> candidates = new ArrayList<>();
+        
+        Admin currentAdmin = getCurrentAdmin(DatabaseManager.getInstance());
+        if (currentAdmin != null) {
+            candidates.add(new RecoveryEngine.Candidate("current admin", "admin123", currentAdmin.getSalt()));
+        }
+        
+        for (Admin admin : adminHistory) {
+            for (String password : COMMON_PASSWORDS) {
+                candidates.add(new RecoveryEngine.Candidate(admin.getUsername() + "/" + password, password, admin.getSalt()));
             }
-        } catch (Exception e) {
-            // Decryption failed with these credentials
-            return new RecoveryResult(false, e.getMessage(), null, null);
         }
+        
+        return new RecoveryEngine(candidates);
+    }
+    
+    private static synchronized PackStore getPackStore() {
+        if (packStore == null) {
+            packStore = new PackStore(PACKS_DIR);
+        }
+        return packStore;
     }
     
     private static Admin getCurrentAdmin(DatabaseManager dbManager) {
@@ -126,10 +132,11 @@ public class RecoveryUtil {
             List<VaultFile> files = dbManager.getAllVaultFiles();
             List<RecoveryResult> successfulRecoveries = new ArrayList<>();
             
-            // Try to recover each file
+            // Try to recover each file; keys are derived once for all of them
             List<Admin> adminHistory = new ArrayList<>(); // In a real scenario, we'd have this
+            RecoveryEngine engine = createEngine(adminHistory);
             for (VaultFile file : files) {
-                RecoveryResult result = attemptFileRecovery(file, adminHistory);
+                RecoveryResult result = attemptFileRecovery(file, engine);
                 if (result.success) {
                     successfulRecoveries.add(result);
                 }
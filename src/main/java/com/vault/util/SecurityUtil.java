@@ -4,11 +4,16 @@ import com.vault.config.SecurityConfig;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.zip.CRC32C;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Utility class for encryption and security operations
@@ -17,6 +22,7 @@ public class SecurityUtil {
     
     private static final String ALGORITHM = "AES";
     private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final String BLOCK_TRANSFORMATION = "AES/CBC/NoPadding";
     private static final String HASH_ALGORITHM = "SHA-256";
     private static final int IV_LENGTH = 16;
     private static final int SALT_LENGTH = 32;
@@ -73,6 +79,23 @@ public class SecurityUtil {
         }
     }
     
+    /**
+     * Exact size of the blob written for a plaintext of the given length
+     */
+    public static long encryptedSize(long plaintextLength) {
+        // IV followed by the PKCS5-padded ciphertext, which always adds 1-16 bytes
+        return IV_LENGTH + (plaintextLength / 16 + 1) * 16;
+    }
+    
+    /**
+     * CRC32C of a stored blob, used to detect corruption without decrypting
+     */
+    public static long checksum(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return crc.getValue();
+    }
+    
     /**
      * Encrypt data using AES
      */
@@ -134,6 +157,34 @@ public class SecurityUtil {
         }
     }
     
+    /**
+     * Create an AES/CBC cipher initialized for decryption with the given IV.
+     * Used by the streaming readers that decrypt blobs without loading them fully.
+     */
+    public static Cipher createDecryptCipher(SecretKey key, byte[] iv) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+            return cipher;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize decryption", e);
+        }
+    }
+    
+    /**
+     * Create a raw CBC cipher (no padding removal) for decrypting individual
+     * blocks in the middle of a blob
+     */
+    public static Cipher createBlockDecryptCipher(SecretKey key, byte[] iv) {
+        try {
+            Cipher cipher = Cipher.getInstance(BLOCK_TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+            return cipher;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize block decryption", e);
+        }
+    }
+    
     /**
      * Generate a secure random filename
      */
@@ -143,4 +194,30 @@ public class SecurityUtil {
         random.nextBytes(bytes);
         return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
+    
+    /**
+     * Overwrite a plaintext file with zeros before deleting it
+     */
+    public static boolean secureDelete(File file) {
+        if (file == null || !file.exists()) {
+            return true;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer zeros = ByteBuffer.allocateDirect(64 * 1024);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                zeros.clear();
+                zeros.limit((int) Math.min(zeros.capacity(), size - position));
+                position += channel.write(zeros, position);
+            }
+            channel.force(false);
+        } catch (Exception e) {
+            // Still try to remove the file even if it could not be overwritten
+            System.err.println("Could not overwrite file before deletion: " + file.getName());
+        }
+        
+        return file.delete();
+    }
 }
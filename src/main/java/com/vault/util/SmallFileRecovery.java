@@ -1,9 +1,6 @@
 package com.vault.util;
 
-import com.vault.util.SecurityUtil;
-
 import java.io.File;
-import java.nio.file.Files;
 
 /**
  * Recovery tool for smaller encrypted files to determine password pattern
@@ -60,47 +57,37 @@ public class SmallFileRecovery {
             "admin", "Lintshiwe", "lintshiwe", "user", "vault", "root", "ntoam"
         };
         
+        // Usernames were used as salts; derive every key once for all files
+        RecoveryEngine engine = new RecoveryEngine(RecoveryEngine.combine(passwords, usernames));
+        long start = System.currentTimeMillis();
+        engine.deriveKeys();
+        System.out.println("Derived " + engine.deriveKeys().size() + " candidate keys in "
+            + (System.currentTimeMillis() - start) + " ms");
+        System.out.println();
+        
         for (String filename : smallFiles) {
             System.out.println("=== Testing file: " + filename + " ===");
             
-            File file = new File(FILES_DIR, filename);
+            File file = BlobLayout.locate(FILES_DIR, filename);
             if (!file.exists()) {
                 System.out.println("File not found: " + filename);
                 continue;
             }
             
             try {
-                byte[] encryptedData = Files.readAllBytes(file.toPath());
-                System.out.println("File size: " + encryptedData.length + " bytes");
-                
-                boolean recovered = false;
-                int attempts = 0;
-                
-                for (String username : usernames) {
-                    for (String password : passwords) {
-                        attempts++;
-                        if (tryDecrypt(encryptedData, username, password)) {
-                            System.out.println();
-                            System.out.println("🎉 SUCCESS! File: " + filename);
-                            System.out.println("Username: " + username);
-                            System.out.println("Password: '" + password + "'");
-                            System.out.println("Attempts: " + attempts);
-                            System.out.println("=================================");
-                            recovered = true;
-                            break;
-                        }
-                        
-                        if (attempts % 50 == 0) {
-                            System.out.print(".");
-                        }
-                    }
-                    if (recovered) break;
-                }
+                System.out.println("File size: " + file.length() + " bytes");
                 
-                if (!recovered) {
+                RecoveryEngine.Match match = engine.findKey(file, -1);
+                if (match != null) {
+                    System.out.println();
+                    System.out.println("🎉 SUCCESS! File: " + filename);
+                    System.out.println("Username: " + match.getCandidate().getSalt());
+                    System.out.println("Password: '" + match.getCandidate().getPassword() + "'");
+                    System.out.println("=================================");
+                } else {
                     System.out.println();
                     System.out.println("❌ Could not recover: " + filename);
-                    System.out.println("Tested " + attempts + " combinations");
+                    System.out.println("Tested " + engine.getCandidateCount() + " combinations");
                 }
                 
             } catch (Exception e) {
@@ -112,14 +99,4 @@ public class SmallFileRecovery {
         
         System.out.println("Recovery scan complete.");
     }
-    
-    private static boolean tryDecrypt(byte[] encryptedData, String username, String password) {
-        try {
-            javax.crypto.SecretKey key = SecurityUtil.generateKeyFromPassword(password, username);
-            byte[] decryptedData = SecurityUtil.decrypt(encryptedData, key);
-            return decryptedData != null && decryptedData.length > 0;
-        } catch (Exception e) {
-            return false;
-        }
-    }
 }
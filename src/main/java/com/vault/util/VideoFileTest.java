@@ -3,7 +3,8 @@ package com.vault.util;
 import com.vault.util.SecurityUtil;
 
 import java.io.File;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
 
 /**
  * Quick test for the video file with found credentials
@@ -23,7 +24,7 @@ public class VideoFileTest {
         
         try {
             String filesDir = System.getProperty("user.home") + "/.securevault/files";
-            File file = new File(filesDir, filename);
+            File file = BlobLayout.locate(filesDir, filename);
             
             if (!file.exists()) {
                 System.out.println("❌ File not found: " + file.getAbsolutePath());
@@ -32,16 +33,16 @@ public class VideoFileTest {
             
             System.out.println("File size: " + (file.length() / 1024 / 1024) + " MB");
             
-            byte[] encryptedData = Files.readAllBytes(file.toPath());
-            System.out.println("Successfully read " + encryptedData.length + " bytes");
-            
             javax.crypto.SecretKey key = SecurityUtil.generateKeyFromPassword(password, username);
-            byte[] decryptedData = SecurityUtil.decrypt(encryptedData, key);
             
-            if (decryptedData != null && decryptedData.length > 0) {
+            // Stream the video through mapped windows and discard the plaintext
+            long decryptedLength = MappedBlobReader.decryptTo(file.toPath(), key,
+                    Channels.newChannel(OutputStream.nullOutputStream()));
+            
+            if (decryptedLength > 0) {
                 System.out.println();
                 System.out.println("🎉 SUCCESS! Video file can be decrypted!");
-                System.out.println("Decrypted size: " + (decryptedData.length / 1024 / 1024) + " MB");
+                System.out.println("Decrypted size: " + (decryptedLength / 1024 / 1024) + " MB");
                 System.out.println("Username: " + username);
                 System.out.println("Password: " + password);
                 System.out.println();
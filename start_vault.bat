@@ -5,4 +5,6 @@ echo Use these credentials to login:
 echo Username: user
 echo Password: december
 echo.
-java -jar target/VaultApp-1.0.0.jar
+set CDS_OPTS=
+if exist "target\VaultApp.jsa" set CDS_OPTS=-XX:SharedArchiveFile=target\VaultApp.jsa -Xshare:auto
+java %CDS_OPTS% -jar target/VaultApp-1.0.0.jar
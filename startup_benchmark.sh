@@ -0,0 +1,58 @@
+#!/bin/bash
+# Startup benchmark: time to the first frame (login window) with and without
+# the AppCDS archive. Build first with: mvn clean package -Pappcds
+#
+# Usage: ./startup_benchmark.sh [runs]
+
+RUNS=${1:-5}
+JAR="target/VaultApp-1.0.0.jar"
+ARCHIVE="target/VaultApp.jsa"
+APP_ARGS="--startup-benchmark --no-splash --no-update-check"
+
+if [ ! -f "$JAR" ]; then
+    echo "Jar not found: $JAR (run mvn clean package -Pappcds first)"
+    exit 1
+fi
+
+# Runs the application once and prints "<wall ms> <first frame ms>"
+run_once() {
+    local start end output first_frame
+    start=$(date +%s%N)
+    output=$(java "$@" -jar "$JAR" $APP_ARGS 2>&1)
+    end=$(date +%s%N)
+    first_frame=$(echo "$output" | sed -n 's/.*\[startup\] time since JVM start: \([0-9]*\) ms.*/\1/p')
+    echo "$(( (end - start) / 1000000 )) ${first_frame:-0}"
+}
+
+# Prints the average wall and first-frame time over RUNS runs
+benchmark() {
+    local label=$1
+    shift
+    local total_wall=0 total_frame=0 wall frame
+    
+    # Warm the OS file cache so both modes start from the same state
+    run_once "$@" > /dev/null
+    
+    for ((i = 1; i <= RUNS; i++)); do
+        read -r wall frame < <(run_once "$@")
+        total_wall=$((total_wall + wall))
+        total_frame=$((total_frame + frame))
+    done
+    
+    printf "%-12s first frame: %5d ms   process wall time: %5d ms\n" \
+        "$label" $((total_frame / RUNS)) $((total_wall / RUNS))
+}
+
+echo "=== STARTUP BENCHMARK ($RUNS runs each) ==="
+echo "Java: $(java -version 2>&1 | head -n 1)"
+echo ""
+
+benchmark "Default CDS" -Xshare:auto
+
+if [ -f "$ARCHIVE" ]; then
+    benchmark "AppCDS" -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto
+else
+    echo "AppCDS archive not found: $ARCHIVE (run mvn clean package -Pappcds)"
+fi
+
+benchmark "No CDS" -Xshare:off
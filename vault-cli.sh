@@ -0,0 +1,15 @@
+#!/bin/bash
+# Headless command line interface for scripted vault jobs (cron, servers).
+# Run from the directory that holds vault.db. Build first with: mvn clean package
+#
+# Usage: VAULT_PASSWORD=... ./vault-cli.sh <command> [options]
+#        ./vault-cli.sh --help for the list of commands
+
+JAR="$(dirname "$0")/target/VaultApp-1.0.0.jar"
+
+if [ ! -f "$JAR" ]; then
+    echo "Jar not found: $JAR (run mvn clean package first)" >&2
+    exit 5
+fi
+
+exec java -Djava.awt.headless=true -cp "$JAR" com.vault.cli.VaultCli "$@"